@@ -2,29 +2,22 @@ package command;
 
 import utils.Ui;
 
-import java.util.HashMap;
-import java.util.Stack;
+import java.util.List;
 
 public class CommandCentre {
 
     /**
-     * A collection to store and map command names to their
+     * A trie to map command names, aliases and unique prefixes to their
      * respective Command.
      */
-    private HashMap<String, Command> commands;
-    /**
-     * A stack to store all the opposite commands of previously executed commands. The opposite of
-     * the most recently executed command will be at the top of the stack.
-     */
-    private Stack<Command> commandHistory;
+    private CommandTrie commands;
     private Ui ui;
 
     /**
      * Manages all commands in the app.
      */
     public CommandCentre() {
-        commands = new HashMap<>();
-        commandHistory = new Stack<>();
+        commands = new CommandTrie();
     }
 
     public void setUi(Ui ui) {
@@ -42,47 +35,85 @@ public class CommandCentre {
     }
 
     /**
-     * Executes the command given by the command name.
+     * Adds a new Command that only runs when its full name or an alias is
+     * typed, never a prefix, for commands that are hard to take back.
+     *
+     * @param commandName The name of the command to be registered.
+     * @param command     The Command object this commandName will map to.
+     */
+    public void registerExact(String commandName, Command command) {
+        commands.putExact(commandName, command);
+    }
+
+    /**
+     * Adds another name for a registered command, for abbreviations that
+     * are not a unique prefix of the command name, such as "dl" for
+     * "deadline".
+     *
+     * @param alias       The other name.
+     * @param commandName The name the command was registered under.
+     */
+    public void registerAlias(String alias, String commandName) {
+        commands.putAlias(alias, commandName);
+    }
+
+    /**
+     * Executes the command given by the command name and returns what it
+     * printed.
      *
      * @param commandName The name of the command to be executed.
+     * @return The result of the command.
      */
-    public void execute(String commandName) {
+    public CommandResult execute(String commandName) {
         Command command = commands.get(commandName);
         command.execute();
+        return ui.takeResult();
     }
 
     /**
-     * Checks whether the Command Centre contains a Command with the specified
-     * command name.
+     * Finds the command an action word refers to, which is the command
+     * with that name or alias, or else the only command whose name starts
+     * with the word and that was not registered with registerExact.
      *
-     * @param commandName The command name to be checked for.
-     * @return True if command is found, false otherwise.
+     * @param text  The text holding the action word.
+     * @param start The offset of the first character of the word.
+     * @param end   The offset just after the last character of the word.
+     * @return The name of the command, or null if the word refers to no
+     * command or to more than one.
      */
-    public boolean contains(String commandName) {
-        return commands.containsKey(commandName);
+    public String resolve(String text, int start, int end) {
+        return commands.resolve(text, start, end);
     }
 
-    public void addToHistory(Command command) {
-        commandHistory.push(command);
+    /**
+     * Returns the names of all commands whose names start with the given
+     * action word.
+     *
+     * @param text  The text holding the action word.
+     * @param start The offset of the first character of the word.
+     * @param end   The offset just after the last character of the word.
+     * @return The command names in alphabetical order.
+     */
+    public List<String> getCandidates(String text, int start, int end) {
+        return commands.getCandidates(text, start, end);
     }
 
     /**
-     * Undoes the latest command that has been executed.
-     * If there are no more latest commands, ui responds with a warning message.
+     * Checks whether the Command Centre contains a Command with the specified
+     * command name.
+     *
+     * @param commandName The command name to be checked for.
+     * @return True if command is found, false otherwise.
      */
-    public void undo() {
-        if (!commandHistory.isEmpty()) {
-            commandHistory.pop().execute();
-        } else {
-            ui.printUndoNotAllowedMessage();
-        }
+    public boolean contains(String commandName) {
+        return commands.get(commandName) != null;
     }
 
     /**
      * Initialize dummy commands for Junit test.
      */
     public void initializeDummyCommands() {
-        register("bye", new Command() {
+        registerExact("bye", new Command() {
             @Override
             public void execute() {
             }
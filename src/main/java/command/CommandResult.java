@@ -0,0 +1,160 @@
+package command;
+
+import task.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of running one command, as a sequence of typed entries such
+ * as messages, errors, tasks and pages of tasks. No text is formatted until
+ * the result is rendered by Ui, so a caller that does not need the text,
+ * such as a bulk import, can skip rendering altogether. Tasks are never
+ * changed once they are in the TaskList, so an entry shows its tasks as
+ * they were when the command ran.
+ */
+public class CommandResult {
+
+    /**
+     * The kinds of entries in a result.
+     */
+    public enum Kind {
+        /** A fixed message. */
+        MESSAGE,
+        /** A message explaining why a command could not be run. */
+        ERROR,
+        /** A single task on a line of its own. */
+        TASK,
+        /** The number of tasks left in the list. */
+        TASK_COUNT,
+        /** A titled, numbered list of tasks. */
+        TASK_LIST,
+        /** A titled page of tasks, numbered by their position in the whole list. */
+        TASK_PAGE
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Checks whether the command ran into an error.
+     *
+     * @return True if any entry is an error, false otherwise.
+     */
+    public boolean hasError() {
+        for (Entry entry : entries) {
+            if (entry.kind == Kind.ERROR) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void addMessage(String message) {
+        entries.add(new Entry(Kind.MESSAGE, message, null, null, 0, 0, 0));
+    }
+
+    public void addError(String message) {
+        entries.add(new Entry(Kind.ERROR, message, null, null, 0, 0, 0));
+    }
+
+    public void addTask(Task task) {
+        entries.add(new Entry(Kind.TASK, null, task, null, 0, 0, 0));
+    }
+
+    public void addTaskCount(int taskCount) {
+        entries.add(new Entry(Kind.TASK_COUNT, null, null, null, taskCount, 0, 0));
+    }
+
+    /**
+     * Adds a numbered list of tasks. The tasks are copied, so later changes
+     * to the list do not show when the result is rendered.
+     *
+     * @param title The preamble to be shown before the tasks.
+     * @param tasks The tasks to be listed.
+     */
+    public void addTaskList(String title, List<Task> tasks) {
+        entries.add(new Entry(Kind.TASK_LIST, title, null, List.copyOf(tasks), 0, 0, 0));
+    }
+
+    /**
+     * Adds one page of tasks.
+     *
+     * @param title      The preamble to be shown before the tasks.
+     * @param page       The tasks on the page, which must not change afterwards.
+     * @param offset     The position of the first task on the page in the whole list.
+     * @param pageNumber The number of the page, starting from 1.
+     * @param pageCount  The total number of pages.
+     */
+    public void addTaskPage(String title, List<Task> page, int offset, int pageNumber, int pageCount) {
+        entries.add(new Entry(Kind.TASK_PAGE, title, null, page, offset, pageNumber, pageCount));
+    }
+
+    /**
+     * One entry of a CommandResult. Which fields are set depends on its kind.
+     */
+    public static class Entry {
+        private final Kind kind;
+        private final String text;
+        private final Task task;
+        private final List<Task> tasks;
+        private final int number;
+        private final int pageNumber;
+        private final int pageCount;
+
+        private Entry(Kind kind, String text, Task task, List<Task> tasks, int number, int pageNumber,
+                      int pageCount) {
+            this.kind = kind;
+            this.text = text;
+            this.task = task;
+            this.tasks = tasks;
+            this.number = number;
+            this.pageNumber = pageNumber;
+            this.pageCount = pageCount;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the message of a MESSAGE or ERROR entry, or the title of a
+         * TASK_LIST or TASK_PAGE entry.
+         */
+        public String getText() {
+            return text;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+
+        public List<Task> getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Returns the task count of a TASK_COUNT entry, or the offset of a
+         * TASK_PAGE entry.
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        public int getPageNumber() {
+            return pageNumber;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Maps command names and their aliases to commands with a trie, so that an
+ * action word is resolved in time proportional to its length. A word that
+ * is not a name or alias still resolves if it is the prefix of exactly one
+ * command, e.g. "dea" for "deadline", unless that command was added with
+ * putExact.
+ */
+class CommandTrie {
+    private final Node root = new Node();
+
+    /**
+     * Adds a command under its name.
+     *
+     * @param name    The name of the command.
+     * @param command The command.
+     */
+    void put(String name, Command command) {
+        Node node = insert(name, name);
+        node.name = name;
+        node.command = command;
+    }
+
+    /**
+     * Adds a command that only resolves from its name or an alias, never
+     * from a prefix, for commands that should not run by a slip of the
+     * keyboard, such as "undo".
+     *
+     * @param name    The name of the command.
+     * @param command The command.
+     */
+    void putExact(String name, Command command) {
+        put(name, command);
+        find(name, 0, name.length()).isExact = true;
+    }
+
+    /**
+     * Adds another name for a command that has already been added.
+     *
+     * @param alias The other name, such as "dl".
+     * @param name  The name the command was added under, such as "deadline".
+     */
+    void putAlias(String alias, String name) {
+        Node target = find(name, 0, name.length());
+        assert target != null && target.command != null : "Alias target must be registered first.";
+        Node node = insert(alias, name);
+        node.name = name;
+        node.command = target.command;
+    }
+
+    /**
+     * Returns the name of the command the given part of the text refers to:
+     * a name or alias that matches it exactly, or else the only command it
+     * is a prefix of, unless that command was added with putExact.
+     *
+     * @param text  The text holding the action word.
+     * @param start The offset of the first character of the word.
+     * @param end   The offset just after the last character of the word.
+     * @return The name of the command, or null if the word refers to no
+     * command or to more than one.
+     */
+    String resolve(String text, int start, int end) {
+        Node node = find(text, start, end);
+        if (node == null || start == end) {
+            return null;
+        }
+        if (node.command != null) {
+            return node.name;
+        }
+        if (node.uniqueName == null) {
+            return null;
+        }
+        Node target = find(node.uniqueName, 0, node.uniqueName.length());
+        return target.isExact ? null : node.uniqueName;
+    }
+
+    /**
+     * Returns the command with exactly the given name or alias.
+     *
+     * @param name The name or alias of the command.
+     * @return The command, or null if there is none.
+     */
+    Command get(String name) {
+        Node node = find(name, 0, name.length());
+        return node == null ? null : node.command;
+    }
+
+    /**
+     * Returns the names of all commands the given part of the text is a
+     * prefix of, for telling the user what an ambiguous word could mean.
+     *
+     * @return The names in alphabetical order.
+     */
+    List<String> getCandidates(String text, int start, int end) {
+        TreeSet<String> names = new TreeSet<>();
+        Node node = find(text, start, end);
+        if (node != null) {
+            collectNames(node, names);
+        }
+        return new ArrayList<>(names);
+    }
+
+    private Node find(String text, int start, int end) {
+        Node node = root;
+        for (int i = start; i < end && node != null; i++) {
+            node = node.getChild(text.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Adds the path for the key, recording along the way whether each
+     * prefix still leads to a single command.
+     */
+    private Node insert(String key, String name) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.getChild(key.charAt(i));
+            if (child == null) {
+                child = node.addChild(key.charAt(i));
+            }
+            node = child;
+            node.addName(name);
+        }
+        return node;
+    }
+
+    private void collectNames(Node node, TreeSet<String> names) {
+        if (node.name != null) {
+            names.add(node.name);
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            collectNames(node.children[i], names);
+        }
+    }
+
+    /**
+     * A node of the trie. Commands have short names over a small alphabet,
+     * so the children are kept in small arrays and searched linearly.
+     */
+    private static class Node {
+        private char[] labels = new char[2];
+        private Node[] children = new Node[2];
+        private int childCount;
+        private String name;
+        private Command command;
+        /**
+         * Whether the command named by this node does not resolve from a
+         * prefix.
+         */
+        private boolean isExact;
+        /**
+         * The name of the only command under this node, or null if there
+         * are several.
+         */
+        private String uniqueName;
+        private boolean isAmbiguous;
+
+        Node getChild(char label) {
+            for (int i = 0; i < childCount; i++) {
+                if (labels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(char label) {
+            if (childCount == labels.length) {
+                labels = Arrays.copyOf(labels, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            Node child = new Node();
+            labels[childCount] = label;
+            children[childCount] = child;
+            childCount++;
+            return child;
+        }
+
+        void addName(String commandName) {
+            if (isAmbiguous || commandName.equals(uniqueName)) {
+                return;
+            }
+            if (uniqueName == null) {
+                uniqueName = commandName;
+            } else {
+                uniqueName = null;
+                isAmbiguous = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import command.CommandResult;
+import main.CommandExecutor;
+import main.Duke;
+import utils.Json;
+import utils.Parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A local HTTP server that lets other tools read and change the task list
+ * through JSON endpoints. Every request is turned into the command a user
+ * would type and run through Duke, so it is saved and can be undone like
+ * any other command. The server only listens on the loopback address.
+ *
+ * <p>The endpoints are:
+ * <ul>
+ * <li>{@code GET /tasks?page=P&size=S}: one page of the list.</li>
+ * <li>{@code GET /tasks/find?q=KEYWORD&page=P&size=S}: one page of a find.</li>
+ * <li>{@code POST /tasks} with {@code {"type": "todo", "name": "..."}}, or a
+ * "deadline" or "event" with a "time" in the format "DD/MM/YYYY HHmm".</li>
+ * <li>{@code POST /tasks/N/done}: marks the N-th task as done.</li>
+ * <li>{@code DELETE /tasks/N}: deletes the N-th task.</li>
+ * <li>{@code POST /undo}: undoes the most recent change.</li>
+ * </ul>
+ * A response is the JSON written by Json.render, with status 200, or 400 if
+ * the command failed. A name, time or keyword holding "/by", "/at", "--page"
+ * or "--size" is refused with a 400 response, since the parser would read
+ * it as part of the command.
+ *
+ * <p>Each request runs on its own virtual thread when the JVM has them, or
+ * on a cached thread pool otherwise. Lists and finds are answered on that
+ * thread from a snapshot of the tasks, while the other commands are queued
+ * for the single writer thread of a CommandExecutor.
+ *
+ * <p>A server can also replicate its tasks to read-only replicas, see
+ * ReplicationServer. A replica serves the GET endpoints from its copy,
+ * refuses changes with a 400 response, and reports how far it lags behind
+ * at {@code GET /replication}.
+ *
+ * <p>Usage: {@code java -cp duke.jar controller.ApiServer [--port N]
+ * [--storage FILE] [--replication-port N]}, or {@code java -jar duke.jar
+ * --api}. With "--follow N", it serves a replica of the primary that
+ * replicates on port N instead.
+ */
+public class ApiServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final String PORT_OPTION = "--port";
+    private static final String STORAGE_OPTION = "--storage";
+    private static final String REPLICATION_PORT_OPTION = "--replication-port";
+    private static final String FOLLOW_OPTION = "--follow";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STOP_DELAY_SECONDS = 1;
+    /**
+     * Makes the JDK server send small responses straight away. Without it,
+     * the headers and body go out in separate packets and the body waits
+     * for the client's delayed acknowledgement, adding about 40 ms to every
+     * request.
+     */
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    /**
+     * The words the parser reads as the start of a task's time or of a
+     * paging option, wherever they appear in a command.
+     */
+    private static final String[] COMMAND_KEYWORDS = {Parser.DEADLINE_KEYWORD, Parser.EVENT_KEYWORD,
+            Parser.PAGE_OPTION, Parser.SIZE_OPTION};
+
+    private final Function<String, CommandResult> commandRunner;
+    private final Runnable onStop;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server for the given Duke on the loopback address. It does
+     * not accept requests until it is started, but the tasks are loaded
+     * straight away.
+     *
+     * @param duke The Duke that runs the commands.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ApiServer(Duke duke, int port) throws IOException {
+        this(new CommandExecutor(duke), port);
+    }
+
+    /**
+     * Creates a server on the loopback address that answers from a replica
+     * of the tasks of another process.
+     *
+     * @param follower The replica.
+     * @param port     The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ApiServer(ReplicaFollower follower, int port) throws IOException {
+        this(follower::query, follower::close, port);
+        server.createContext("/replication", exchange -> handleReplication(exchange, follower));
+    }
+
+    private ApiServer(CommandExecutor commandExecutor, int port) throws IOException {
+        this(commandExecutor::execute, commandExecutor::close, port);
+    }
+
+    private ApiServer(Function<String, CommandResult> commandRunner, Runnable onStop, int port) throws IOException {
+        this.commandRunner = commandRunner;
+        this.onStop = onStop;
+        if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/tasks", this::handleTasks);
+        server.createContext("/undo", this::handleUndo);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String storagePath = Duke.DEFAULT_STORAGE_PATH;
+        int replicationPort = -1;
+        int followedPort = -1;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(PORT_OPTION)) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals(STORAGE_OPTION)) {
+                storagePath = args[i + 1];
+            } else if (args[i].equals(REPLICATION_PORT_OPTION)) {
+                replicationPort = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals(FOLLOW_OPTION)) {
+                followedPort = Integer.parseInt(args[i + 1]);
+            }
+        }
+
+        if (followedPort >= 0) {
+            ApiServer replicaServer = new ApiServer(new ReplicaFollower(followedPort), port);
+            replicaServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(replicaServer::stop));
+            System.err.printf("Serving a replica of the primary on port %d at http://localhost:%d/tasks%n",
+                    followedPort, replicaServer.getPort());
+            return;
+        }
+        ApiServer apiServer = new ApiServer(new Duke(storagePath), port);
+        if (replicationPort >= 0) {
+            // Created before the server starts, while no command is running.
+            ReplicationServer replicationServer = new ReplicationServer(replicationPort);
+            replicationServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(replicationServer::stop));
+            System.err.printf("Replicating to followers on port %d%n", replicationServer.getPort());
+        }
+        apiServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(apiServer::stop));
+        System.err.printf("Serving the task list at http://localhost:%d/tasks%n", apiServer.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for the ones in progress and
+     * runs and saves the commands still queued.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        onStop.run();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Creates an executor that runs each request on a new virtual thread.
+     * Virtual threads are looked up by reflection, so that the server still
+     * runs on a JVM without them, on a cached thread pool instead.
+     *
+     * @return The executor for requests.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleTasks(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        // The path "/tasks/3/done" splits into {"", "tasks", "3", "done"}.
+        if (path.length < 2 || !path[1].equals("tasks")) {
+            respondStatus(exchange, STATUS_NOT_FOUND);
+        } else if (path.length == 2) {
+            if (method.equals("GET")) {
+                respond(exchange, "list" + buildPageOptions(query));
+            } else if (method.equals("POST")) {
+                respond(exchange, buildAddCommand(readBody(exchange)));
+            } else {
+                respondStatus(exchange, STATUS_METHOD_NOT_ALLOWED);
+            }
+        } else if (path.length == 3 && path[2].equals("find")) {
+            if (method.equals("GET")) {
+                String keyword = query.get("q");
+                respond(exchange, isPlainValue(keyword) ? "find " + keyword + buildPageOptions(query) : null);
+            } else {
+                respondStatus(exchange, STATUS_METHOD_NOT_ALLOWED);
+            }
+        } else if (path.length == 3 && isNumber(path[2])) {
+            if (method.equals("DELETE")) {
+                respond(exchange, "delete " + path[2]);
+            } else {
+                respondStatus(exchange, STATUS_METHOD_NOT_ALLOWED);
+            }
+        } else if (path.length == 4 && isNumber(path[2]) && path[3].equals("done")) {
+            if (method.equals("POST")) {
+                respond(exchange, "done " + path[2]);
+            } else {
+                respondStatus(exchange, STATUS_METHOD_NOT_ALLOWED);
+            }
+        } else {
+            respondStatus(exchange, STATUS_NOT_FOUND);
+        }
+    }
+
+    private void handleUndo(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/undo")) {
+            respondStatus(exchange, STATUS_NOT_FOUND);
+        } else if (!exchange.getRequestMethod().equals("POST")) {
+            respondStatus(exchange, STATUS_METHOD_NOT_ALLOWED);
+        } else {
+            respond(exchange, "undo");
+        }
+    }
+
+    /**
+     * Turns the body of a POST to /tasks into a todo, deadline or event
+     * command.
+     *
+     * @return The command, or null if the body is not a valid task.
+     */
+    private static String buildAddCommand(String body) {
+        Map<String, String> task = Json.parseObject(body);
+        if (task == null || !isPlainValue(task.get("name"))) {
+            return null;
+        }
+        String type = task.getOrDefault("type", "todo");
+        String name = task.get("name");
+        String time = task.get("time");
+        switch (type) {
+        case "todo":
+            return "todo " + name;
+        case "deadline":
+            return isPlainValue(time) ? "deadline " + name + " /by " + time : null;
+        case "event":
+            return isPlainValue(time) ? "event " + name + " /at " + time : null;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Turns the "page" and "size" query parameters into the options of the
+     * list and find commands. A list is always paged, starting from the
+     * first page, so a response never holds the whole of a long list.
+     */
+    private static String buildPageOptions(Map<String, String> query) {
+        String page = query.getOrDefault("page", "1");
+        String size = query.getOrDefault("size", Integer.toString(Parser.DEFAULT_PAGE_SIZE));
+        if (!isNumber(page) || !isNumber(size)) {
+            // Lets the parser explain what is wrong with the options.
+            return " --page 0";
+        }
+        return " --page " + page + " --size " + size;
+    }
+
+    /**
+     * Runs the command and sends its result, or a 400 response if the
+     * request could not be turned into a command.
+     */
+    private void respond(HttpExchange exchange, String command) throws IOException {
+        if (command == null) {
+            CommandResult result = new CommandResult();
+            result.addError("The request is not a valid task.");
+            send(exchange, STATUS_BAD_REQUEST, Json.render(result));
+            return;
+        }
+        CommandResult result = commandRunner.apply(command);
+        send(exchange, result.hasError() ? STATUS_BAD_REQUEST : STATUS_OK, Json.render(result));
+    }
+
+    private static void handleReplication(HttpExchange exchange, ReplicaFollower follower) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/replication")) {
+            respondStatus(exchange, STATUS_NOT_FOUND);
+        } else if (!exchange.getRequestMethod().equals("GET")) {
+            respondStatus(exchange, STATUS_METHOD_NOT_ALLOWED);
+        } else {
+            send(exchange, STATUS_OK, String.format("{\"connected\":%b,\"appliedOffset\":%d,"
+                    + "\"primaryOffset\":%d,\"lagRecords\":%d,\"lastDelayMillis\":%d,\"millisSinceContact\":%d,"
+                    + "\"snapshots\":%d}", follower.isConnected(), follower.getAppliedOffset(),
+                    follower.getPrimaryOffset(), follower.getLagRecords(), follower.getLastDelayMillis(),
+                    follower.getMillisSinceContact(), follower.getSnapshotCount()));
+        }
+    }
+
+    private static void respondStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static boolean isNumber(String text) {
+        return !text.isEmpty() && text.length() <= 9 && text.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+
+    /**
+     * Checks that a value is present and is read by the parser as just that
+     * value when pasted into a command: it is a single line, and holds no
+     * keyword that would end it early or add an option.
+     */
+    private static boolean isPlainValue(String text) {
+        if (text == null || text.chars().anyMatch(c -> c == '\n' || c == '\r')) {
+            return false;
+        }
+        for (String keyword : COMMAND_KEYWORDS) {
+            if (text.contains(keyword)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
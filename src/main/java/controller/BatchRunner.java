@@ -0,0 +1,149 @@
+package controller;
+
+import command.CommandResult;
+import main.Duke;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A headless entry point that runs a script of commands through Duke
+ * without the GUI, one command per line, and writes Duke's responses to
+ * standard output. Saving is deferred while the script runs: the tasks are
+ * saved once at the end, and also every "--checkpoint" commands if given.
+ *
+ * <p>Usage: {@code java -cp duke.jar controller.BatchRunner [--checkpoint N]
+ * [--storage FILE] [--quiet] [SCRIPT]}. Commands are read from standard
+ * input if no script is given or the script is "-". With "--quiet", the
+ * responses are not rendered at all.
+ */
+public class BatchRunner {
+    /**
+     * Saves the tasks only once, at the end of the script.
+     */
+    public static final int NO_CHECKPOINTS = 0;
+    private static final String CHECKPOINT_OPTION = "--checkpoint";
+    private static final String STORAGE_OPTION = "--storage";
+    private static final String QUIET_OPTION = "--quiet";
+    private static final String STANDARD_INPUT = "-";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private final Duke duke;
+    private final int checkpointInterval;
+    private final boolean isRendered;
+
+    /**
+     * Creates a runner for the given Duke that writes every response.
+     *
+     * @param duke               The Duke that runs the commands.
+     * @param checkpointInterval The number of commands between saves, or
+     *                           NO_CHECKPOINTS to save only at the end.
+     */
+    public BatchRunner(Duke duke, int checkpointInterval) {
+        this(duke, checkpointInterval, true);
+    }
+
+    /**
+     * Creates a runner for the given Duke.
+     *
+     * @param duke               The Duke that runs the commands.
+     * @param checkpointInterval The number of commands between saves, or
+     *                           NO_CHECKPOINTS to save only at the end.
+     * @param isRendered         Whether the responses are rendered and written.
+     */
+    public BatchRunner(Duke duke, int checkpointInterval, boolean isRendered) {
+        assert checkpointInterval >= 0 : "Checkpoint interval cannot be negative.";
+        this.duke = duke;
+        this.checkpointInterval = checkpointInterval;
+        this.isRendered = isRendered;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int checkpointInterval = NO_CHECKPOINTS;
+        String storagePath = null;
+        String scriptPath = STANDARD_INPUT;
+        boolean isRendered = true;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(QUIET_OPTION)) {
+                isRendered = false;
+            } else if (args[i].equals(CHECKPOINT_OPTION) && i + 1 < args.length) {
+                checkpointInterval = Integer.parseInt(args[++i]);
+            } else if (args[i].equals(STORAGE_OPTION) && i + 1 < args.length) {
+                storagePath = args[++i];
+            } else {
+                scriptPath = args[i];
+            }
+        }
+
+        Duke duke = storagePath == null ? new Duke() : new Duke(storagePath);
+        InputStream in = scriptPath.equals(STANDARD_INPUT) ? System.in : new FileInputStream(scriptPath);
+        long start = System.nanoTime();
+        int commandCount;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                     OUTPUT_BUFFER_SIZE)) {
+            commandCount = new BatchRunner(duke, checkpointInterval, isRendered).run(reader, writer);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Ran %d commands in %.3f s (%.0f commands/s).%n", commandCount, seconds,
+                commandCount / seconds);
+    }
+
+    /**
+     * Runs every command from the reader until the end of the input or a
+     * "bye" command, writing the responses to the writer. Responses are
+     * rendered into one buffer, which is written whenever it fills up. The
+     * tasks are saved at every checkpoint and once more at the end, even if
+     * a command fails.
+     *
+     * @param reader The script, one command per line. Blank lines are skipped.
+     * @param writer Where the responses are written.
+     * @return The number of commands that were run.
+     * @throws IOException If the script cannot be read or the responses cannot be written.
+     * @throws java.io.UncheckedIOException If the tasks cannot be saved at the end.
+     */
+    public int run(BufferedReader reader, Writer writer) throws IOException {
+        duke.setAutoSave(false);
+        StringBuilder outputBuilder = new StringBuilder(OUTPUT_BUFFER_SIZE);
+        int commandCount = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                CommandResult result = duke.execute(line);
+                commandCount++;
+                if (isRendered) {
+                    duke.render(result, outputBuilder);
+                }
+                if (duke.isExiting()) {
+                    break;
+                }
+                if (outputBuilder.length() >= OUTPUT_BUFFER_SIZE) {
+                    writer.append(outputBuilder);
+                    outputBuilder.setLength(0);
+                }
+                if (checkpointInterval != NO_CHECKPOINTS && commandCount % checkpointInterval == 0) {
+                    duke.saveTasks();
+                }
+            }
+        } finally {
+            try {
+                writer.append(outputBuilder);
+                writer.flush();
+            } finally {
+                // Saves after the responses are out, since a failure to save is thrown.
+                duke.setAutoSave(true);
+            }
+        }
+        return commandCount;
+    }
+}
@@ -0,0 +1,50 @@
+package controller;
+
+/**
+ * One message in the transcript shown by MainWindow, sent either by the
+ * user or by Duke. The transcript only holds these; the nodes that show
+ * them are created for the visible messages only, and reused as the
+ * transcript scrolls.
+ */
+public class ChatMessage {
+    private final String text;
+    private final boolean isFromUser;
+
+    private ChatMessage(String text, boolean isFromUser) {
+        this.text = text;
+        this.isFromUser = isFromUser;
+    }
+
+    /**
+     * Returns a message sent by the user.
+     *
+     * @param text The text sent by the user.
+     * @return The message.
+     */
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(text, true);
+    }
+
+    /**
+     * Returns a message sent by Duke.
+     *
+     * @param text The text of Duke's reply.
+     * @return The message.
+     */
+    public static ChatMessage fromDuke(String text) {
+        return new ChatMessage(text, false);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isFromUser() {
+        return isFromUser;
+    }
+
+    @Override
+    public String toString() {
+        return (isFromUser ? "User: " : "Duke: ") + text;
+    }
+}
@@ -0,0 +1,147 @@
+package controller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the commands typed into a user interface on a background thread, so
+ * that a slow command never freezes the interface, and hands each response
+ * back through the executor of the interface, such as Platform.runLater for
+ * JavaFX. The commands run one at a time in the order they were dispatched,
+ * and the responses are handed back in the same order.
+ *
+ * <p>At most a fixed number of commands can be waiting for their responses;
+ * any more are refused until some have been answered. A busy listener is
+ * told, through the executor of the interface, when the first command
+ * starts waiting and when the last one has been answered.
+ *
+ * <p>dispatch must only be called on the thread of the interface.
+ */
+public class CommandDispatcher implements AutoCloseable {
+    /**
+     * The default most commands that can be waiting for their responses.
+     */
+    public static final int DEFAULT_MAX_PENDING = 32;
+    static final String FAILURE_MESSAGE = "Sorry, something went wrong while running that command: %s";
+    private static final Logger LOGGER = Logger.getLogger(CommandDispatcher.class.getName());
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Function<String, String> responder;
+    private final Executor uiExecutor;
+    private final int maxPending;
+    private final ExecutorService worker;
+    /**
+     * The commands dispatched but not yet answered, only used on the thread
+     * of the interface.
+     */
+    private int pendingCount;
+    private Consumer<Boolean> busyListener = isBusy -> {};
+
+    /**
+     * Creates a dispatcher with its own worker thread.
+     *
+     * @param responder  Runs a command and returns the response, on the worker thread.
+     * @param uiExecutor Runs tasks on the thread of the interface.
+     * @param maxPending The most commands that can be waiting for their responses.
+     */
+    public CommandDispatcher(Function<String, String> responder, Executor uiExecutor, int maxPending) {
+        this.responder = responder;
+        this.uiExecutor = uiExecutor;
+        this.maxPending = maxPending;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "duke-command-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the listener told whether any command is waiting for its response.
+     * It is called on the thread of the interface.
+     *
+     * @param busyListener The listener.
+     */
+    public void setBusyListener(Consumer<Boolean> busyListener) {
+        this.busyListener = busyListener;
+    }
+
+    /**
+     * Queues a command to run on the worker thread, unless too many commands
+     * are waiting already.
+     *
+     * @param input      The user input.
+     * @param onResponse Shows the response, on the thread of the interface.
+     * @return False if the command was refused because too many commands are waiting.
+     */
+    public boolean dispatch(String input, Consumer<String> onResponse) {
+        if (pendingCount >= maxPending || worker.isShutdown()) {
+            return false;
+        }
+        pendingCount++;
+        if (pendingCount == 1) {
+            busyListener.accept(true);
+        }
+        worker.execute(() -> {
+            String response = respond(input);
+            uiExecutor.execute(() -> {
+                pendingCount--;
+                try {
+                    onResponse.accept(response);
+                } finally {
+                    if (pendingCount == 0) {
+                        busyListener.accept(false);
+                    }
+                }
+            });
+        });
+        return true;
+    }
+
+    /**
+     * Runs a task on the worker thread after the commands already dispatched,
+     * without counting towards the most commands waiting.
+     *
+     * @param task The task, which must not take long. It is dropped if the dispatcher is closed.
+     */
+    public void runOnWorker(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Closed, so there is no one left to run it for.
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Runs the commands already dispatched and stops the worker thread. Their
+     * responses are still handed to the executor of the interface.
+     */
+    @Override
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String respond(String input) {
+        try {
+            return responder.apply(input);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Command failed: " + input.trim(), e);
+            return String.format(FAILURE_MESSAGE, e.getMessage());
+        }
+    }
+}
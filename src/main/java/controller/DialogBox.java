@@ -2,8 +2,6 @@ package controller;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -16,26 +14,27 @@ import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 
-import java.io.IOException;
 import java.util.Collections;
 
 /**
- * An example of a custom control using FXML.
- * This control represents a dialog box consisting of an ImageView to represent the speaker's profile image
- * and a label containing text from the speaker.
+ * A custom control that represents a dialog box consisting of an ImageView to represent the speaker's profile
+ * image and a label containing text from the speaker.
+ *
+ * <p>It is built in code rather than loaded from FXML, as parsing the FXML for every message took far longer
+ * than building the nodes; see DialogBoxBenchmark.
  */
 public class DialogBox extends HBox {
-
-
+    private static final double PREF_WIDTH = 400.0;
+    private static final double IMAGE_SIZE = 99.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
+    private static final Insets TEXT_PADDING = new Insets(0, 8, 0, 8);
     private static final Background USER_BACKGROUND = new Background(new BackgroundFill(
             Color.rgb(152, 251, 152), CornerRadii.EMPTY, Insets.EMPTY));
     private static final Background DUKE_BACKGROUND = new Background(new BackgroundFill(
             Color.rgb(255, 255, 255), CornerRadii.EMPTY, Insets.EMPTY));
 
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
 
     /**
      * Constructs a dialog box with the ImageView on the right and the text on the left.
@@ -44,19 +43,20 @@ public class DialogBox extends HBox {
      * @param image The image representing the user profile.
      */
     private DialogBox(String text, Image image) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(PREF_WIDTH);
+        setPadding(PADDING);
 
         dialog.setWrapText(true);
-        dialog.setPadding(new Insets(0, 8, 0, 8));
+        dialog.setPadding(TEXT_PADDING);
         dialog.setText(text);
+        displayPicture.setFitHeight(IMAGE_SIZE);
+        displayPicture.setFitWidth(IMAGE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
         displayPicture.setImage(image);
+        getChildren().addAll(dialog, displayPicture);
     }
 
     /**
@@ -86,6 +86,16 @@ public class DialogBox extends HBox {
         return dialogBox;
     }
 
+    /**
+     * Replaces the text in the dialog box, so that it can be reused for
+     * another message.
+     *
+     * @param text The new text.
+     */
+    public void setText(String text) {
+        dialog.setText(text);
+    }
+
     /**
      * Flips the dialog box such that the ImageView is on the left and text on the right.
      */
@@ -3,11 +3,27 @@ package controller;
 import javafx.application.Application;
 import main.Main;
 
+import java.util.Arrays;
+
 /**
- * A launcher class to workaround classpath issues.
+ * A launcher class to workaround classpath issues. With the "--terminal"
+ * argument, it starts the terminal session in Repl instead of the GUI, and
+ * with "--api", the HTTP server in ApiServer, without loading any JavaFX
+ * classes.
  */
 public class Launcher {
-    public static void main(String[] args) {
+    private static final String TERMINAL_OPTION = "--terminal";
+    private static final String API_OPTION = "--api";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(TERMINAL_OPTION)) {
+            Repl.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(API_OPTION)) {
+            ApiServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
\ No newline at end of file
@@ -1,41 +1,98 @@
 package controller;
 
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.scene.Group;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import main.Duke;
+import task.TaskList;
+
+import java.util.logging.Logger;
 
 /**
  * Controller class for MainWindow. Provides the layout for the other controls.
+ *
+ * <p>The transcript is a ListView over the messages, which only creates
+ * dialog boxes for the rows that are visible and reuses them as it scrolls.
+ * It keeps the latest MAX_MESSAGES messages, so a long session takes
+ * neither more memory nor longer to lay out.
+ *
+ * <p>Commands run on a background thread through a CommandDispatcher, so a
+ * slow command never freezes the window. A busy indicator shows while any
+ * command is waiting for its response, and how long the application thread
+ * is kept busy per command is logged when the window closes.
+ *
+ * <p>Beside the transcript, a TaskTable shows the tasks as they change.
  */
 public class MainWindow extends AnchorPane {
+    /**
+     * The most messages kept in the transcript. Older ones are dropped.
+     */
+    public static final int MAX_MESSAGES = 10_000;
+    /**
+     * The width kept free beside the dialog boxes for the scroll bar.
+     */
+    private static final double SCROLL_BAR_WIDTH = 16;
+    private static final String BUSY_MESSAGE = "I'm still working on your earlier commands. "
+            + "Please send this one again in a moment.";
+    private static final Logger LOGGER = Logger.getLogger(MainWindow.class.getName());
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator busyIndicator;
+    @FXML
+    private TaskTable taskTable;
 
     private Duke duke;
+    private CommandDispatcher dispatcher;
+    private final UiThreadStats uiThreadStats = new UiThreadStats();
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
     private Image dukeImage = new Image(this.getClass().getResourceAsStream("/images/DaDuke.png"));
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(messages);
+        dialogList.setFocusTraversable(false);
+        dialogList.setCellFactory(listView -> new DialogCell());
     }
 
+    /**
+     * Sets the Duke that runs the commands. From now on, it must only be
+     * used through the background thread of this window.
+     *
+     * @param duke The Duke.
+     */
     public void setDuke(Duke duke) {
         this.duke = duke;
+        dispatcher = new CommandDispatcher(duke::getResponse, Platform::runLater,
+                CommandDispatcher.DEFAULT_MAX_PENDING);
+        dispatcher.setBusyListener(busyIndicator::setVisible);
+        taskTable.follow(TaskList.newInstance(), dispatcher::runOnWorker);
+    }
+
+    /**
+     * Runs the commands still waiting, then stops the background thread.
+     * Used in main.Main when the application stops.
+     */
+    public void shutdown() {
+        taskTable.stopFollowing();
+        dispatcher.close();
+        LOGGER.info(uiThreadStats.toString());
     }
 
     /**
@@ -43,28 +100,86 @@ public class MainWindow extends AnchorPane {
      */
     public void printWelcomeMessage() {
         String response = duke.getWelcomeMessage();
-        dialogContainer.getChildren().addAll(
-                DialogBox.getDukeDialog(response, dukeImage)
-        );
+        addMessages(ChatMessage.fromDuke(response));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing
-     * Duke's reply and then appends them to the dialog container. Clears the
-     * user input after processing.
+     * Echoes the user input in the transcript and runs it in the background,
+     * adding Duke's reply once it is ready. Clears the user input after
+     * processing. If too many commands are waiting already, the input is
+     * kept so that it can be sent again.
      */
     @FXML
     private void handleUserInput() {
+        UiThreadStats.Timing timing = uiThreadStats.start();
         String input = userInput.getText() + "\n";
-        String response = duke.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                new Group(DialogBox.getUserDialog(input, userImage)),
-                new Group(DialogBox.getDukeDialog(response, dukeImage))
-        );
+        boolean isDispatched = dispatcher.dispatch(input, response -> {
+            timing.resume();
+            showResponse(response);
+            timing.finish();
+        });
+        if (!isDispatched) {
+            addMessages(ChatMessage.fromDuke(BUSY_MESSAGE));
+            return;
+        }
+        addMessages(ChatMessage.fromUser(input));
         userInput.clear();
+        timing.pause();
+    }
+
+    private void showResponse(String response) {
+        addMessages(ChatMessage.fromDuke(response));
         if (response.equals(Duke.EXIT_MESSAGE)) {
-            Stage stage = (Stage) dialogContainer.getScene().getWindow();
+            Stage stage = (Stage) dialogList.getScene().getWindow();
             stage.close();
         }
     }
-}
\ No newline at end of file
+
+    private void addMessages(ChatMessage... newMessages) {
+        messages.addAll(newMessages);
+        if (messages.size() > MAX_MESSAGES) {
+            messages.remove(0, messages.size() - MAX_MESSAGES);
+        }
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * A row of the transcript. It holds one dialog box for each speaker and
+     * shows whichever the message needs, only changing its text, so that
+     * reusing the row for another message creates no nodes.
+     */
+    private class DialogCell extends ListCell<ChatMessage> {
+        private DialogBox userDialog;
+        private DialogBox dukeDialog;
+
+        DialogCell() {
+            setStyle("-fx-padding: 0; -fx-background-color: transparent;");
+            // Wraps long messages to the width of the list rather than scrolling sideways.
+            prefWidthProperty().bind(dialogList.widthProperty().subtract(SCROLL_BAR_WIDTH));
+            setMaxWidth(USE_PREF_SIZE);
+        }
+
+        @Override
+        protected void updateItem(ChatMessage message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+            DialogBox dialogBox;
+            if (message.isFromUser()) {
+                if (userDialog == null) {
+                    userDialog = DialogBox.getUserDialog(message.getText(), userImage);
+                }
+                dialogBox = userDialog;
+            } else {
+                if (dukeDialog == null) {
+                    dukeDialog = DialogBox.getDukeDialog(message.getText(), dukeImage);
+                }
+                dialogBox = dukeDialog;
+            }
+            dialogBox.setText(message.getText());
+            setGraphic(dialogBox);
+        }
+    }
+}
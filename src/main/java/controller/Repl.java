@@ -0,0 +1,84 @@
+package controller;
+
+import main.Duke;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * A terminal session with Duke that never loads any JavaFX classes. The
+ * first prompt is shown before the stored tasks are read; they are loaded
+ * on a background thread while the user types, and the first command waits
+ * for them if it is entered before they are ready.
+ *
+ * <p>Usage: {@code java -cp duke.jar controller.Repl [--startup-report]
+ * [--storage FILE]}, or {@code java -jar duke.jar --terminal}. With
+ * "--startup-report", the time from the start of the JVM to the first
+ * prompt and to the tasks being loaded is written to standard error.
+ */
+public class Repl {
+    public static final String PROMPT = "> ";
+    private static final String STARTUP_REPORT_OPTION = "--startup-report";
+    private static final String STORAGE_OPTION = "--storage";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean isStartupReported = Arrays.asList(args).contains(STARTUP_REPORT_OPTION);
+        String storagePath = Duke.DEFAULT_STORAGE_PATH;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(STORAGE_OPTION)) {
+                storagePath = args[i + 1];
+            }
+        }
+
+        PrintStream out = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        Duke duke = new Duke(storagePath, true);
+        out.print(duke.getWelcomeMessage());
+        out.print(PROMPT);
+        out.flush();
+        if (isStartupReported) {
+            System.err.printf("First prompt after %d ms.%n", getMillisSinceJvmStart());
+        }
+
+        Thread loader = new Thread(() -> {
+            duke.loadTasks();
+            if (isStartupReported) {
+                System.err.printf("Tasks loaded after %d ms.%n", getMillisSinceJvmStart());
+            }
+        }, "duke-task-loader");
+        loader.setDaemon(true);
+        loader.start();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String response = duke.getResponse(line);
+            if (response.equals(Duke.EXIT_MESSAGE)) {
+                out.print(duke.getExitResponse());
+                break;
+            }
+            out.print(response);
+            out.print(PROMPT);
+            out.flush();
+        }
+        out.flush();
+        loader.join();
+    }
+
+    /**
+     * Returns the time since the JVM was started, as reported by the
+     * operating system.
+     *
+     * @return The time in milliseconds, or -1 if the start time is unknown.
+     */
+    public static long getMillisSinceJvmStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+}
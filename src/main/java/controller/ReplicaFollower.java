@@ -0,0 +1,235 @@
+package controller;
+
+import command.CommandResult;
+import main.Duke;
+import task.Task;
+import task.TaskSnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only copy of the task list of another Duke process, kept up to
+ * date by the records its ReplicationServer streams. The copy is kept apart
+ * from the TaskList of this process and published as a TaskSnapshot after
+ * every batch of records, so that any number of threads can run the
+ * read-only commands against it, see query. If the connection is lost, it
+ * reconnects and carries on from the last offset it applied.
+ *
+ * <p>It keeps track of how far it lags behind the primary: the latest
+ * offset the primary has reported against the offset applied here, and how
+ * long after being logged on the primary the last record was applied.
+ */
+public class ReplicaFollower implements AutoCloseable {
+    private static final long RETRY_MILLIS = 500;
+    private static final String READ_ONLY_MESSAGE =
+            "This is a read-only replica. Send changes to the primary instead.";
+
+    private final int primaryPort;
+    private final Duke duke;
+    private final Thread receiver;
+    /**
+     * The copy of the list, only changed by the receiver thread.
+     */
+    private final List<Task> tasks = new ArrayList<>();
+    private volatile TaskSnapshot snapshot = new TaskSnapshot(List.of(), 0);
+    private volatile Socket socket;
+    private volatile boolean isClosed;
+    private volatile boolean isConnected;
+    private volatile long epoch;
+    private volatile long appliedOffset;
+    private volatile long primaryOffset;
+    private volatile long lastDelayMillis;
+    private volatile long lastContactMillis;
+    private volatile long snapshotCount;
+
+    /**
+     * Starts following the primary that replicates on the given port of
+     * the loopback address.
+     *
+     * @param primaryPort The port of the ReplicationServer of the primary.
+     */
+    public ReplicaFollower(int primaryPort) {
+        this.primaryPort = primaryPort;
+        // Only its read-only commands are used, so its storage file is never loaded.
+        this.duke = new Duke(Duke.DEFAULT_STORAGE_PATH, true);
+        receiver = new Thread(this::receive, "duke-replica-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Runs a read-only command against the latest copy of the list. Any
+     * other command is refused.
+     *
+     * @param input The user input.
+     * @return The result of the command.
+     */
+    public CommandResult query(String input) {
+        CommandResult result = duke.query(input, snapshot);
+        if (result == null) {
+            result = new CommandResult();
+            result.addError(READ_ONLY_MESSAGE);
+        }
+        return result;
+    }
+
+    public TaskSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public boolean isConnected() {
+        return isConnected;
+    }
+
+    public long getAppliedOffset() {
+        return appliedOffset;
+    }
+
+    public long getPrimaryOffset() {
+        return primaryOffset;
+    }
+
+    /**
+     * Returns the number of records the primary has logged that have not
+     * been applied here yet, as far as this replica knows.
+     */
+    public long getLagRecords() {
+        return Math.max(0, primaryOffset - appliedOffset);
+    }
+
+    /**
+     * Returns how long after being logged on the primary the last record
+     * was applied here, in milliseconds.
+     */
+    public long getLastDelayMillis() {
+        return lastDelayMillis;
+    }
+
+    /**
+     * Returns how long ago the primary was last heard from, in milliseconds.
+     */
+    public long getMillisSinceContact() {
+        return lastContactMillis == 0 ? -1 : System.currentTimeMillis() - lastContactMillis;
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    /**
+     * Stops following the primary. The last copy of the list can still be
+     * queried.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        Socket currentSocket = socket;
+        if (currentSocket != null) {
+            try {
+                currentSocket.close();
+            } catch (IOException e) {
+                // It is closed either way.
+            }
+        }
+        receiver.interrupt();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplicaFollower[connected=%b, appliedOffset=%d, primaryOffset=%d, lagRecords=%d, "
+                + "lastDelayMillis=%d, snapshots=%d]", isConnected, appliedOffset, primaryOffset, getLagRecords(),
+                lastDelayMillis, snapshotCount);
+    }
+
+    private void receive() {
+        while (!isClosed) {
+            try (Socket newSocket = new Socket(InetAddress.getLoopbackAddress(), primaryPort)) {
+                socket = newSocket;
+                newSocket.setTcpNoDelay(true);
+                Writer out = new OutputStreamWriter(newSocket.getOutputStream(), StandardCharsets.UTF_8);
+                out.write(ReplicationServer.FOLLOW_TYPE + ReplicationServer.SEPARATOR + epoch
+                        + ReplicationServer.SEPARATOR + appliedOffset + "\n");
+                out.flush();
+                isConnected = true;
+                BufferedReader in = new BufferedReader(new InputStreamReader(newSocket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null) {
+                    apply(line, in);
+                    if (!in.ready()) {
+                        // Publishes once per batch of records rather than once per record.
+                        snapshot = new TaskSnapshot(tasks, appliedOffset);
+                    }
+                }
+            } catch (IOException e) {
+                // Retries below, unless closed.
+            } catch (RuntimeException e) {
+                // A record could not be applied, so the copy may be wrong: start again from a snapshot.
+                epoch = 0;
+            }
+            isConnected = false;
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies one record to the copy of the list, reading the rest of a
+     * snapshot from the connection.
+     */
+    private void apply(String line, BufferedReader in) throws IOException {
+        String[] record = line.split(ReplicationServer.SEPARATOR_REGEX, 6);
+        long now = System.currentTimeMillis();
+        lastContactMillis = now;
+        switch (record[0]) {
+        case ReplicationServer.SNAPSHOT_TYPE:
+            int count = Integer.parseInt(record[4]);
+            tasks.clear();
+            for (int i = 0; i < count; i++) {
+                tasks.add(Task.fromStorageString(in.readLine()));
+            }
+            epoch = Long.parseLong(record[1]);
+            snapshotCount++;
+            // The primary may have restarted, with offsets counting from 0 again.
+            primaryOffset = 0;
+            applied(Long.parseLong(record[2]), Long.parseLong(record[3]), now);
+            return;
+        case ReplicationServer.ADDED_TYPE:
+            // "A | offset | millis | index | task", where the task has separators of its own.
+            record = line.split(ReplicationServer.SEPARATOR_REGEX, 5);
+            tasks.add(Integer.parseInt(record[3]), Task.fromStorageString(record[4]));
+            break;
+        case ReplicationServer.REMOVED_TYPE:
+            tasks.remove(Integer.parseInt(record[3]));
+            break;
+        case ReplicationServer.STATUS_CHANGED_TYPE:
+            tasks.remove(Integer.parseInt(record[4]));
+            tasks.add(Integer.parseInt(record[3]), Task.fromStorageString(record[5]));
+            break;
+        case ReplicationServer.HEARTBEAT_TYPE:
+            primaryOffset = Math.max(primaryOffset, Long.parseLong(record[1]));
+            return;
+        default:
+            return;
+        }
+        applied(Long.parseLong(record[1]), Long.parseLong(record[2]), now);
+    }
+
+    private void applied(long offset, long loggedMillis, long now) {
+        appliedOffset = offset;
+        primaryOffset = Math.max(primaryOffset, offset);
+        lastDelayMillis = now - loggedMillis;
+    }
+}
@@ -0,0 +1,294 @@
+package controller;
+
+import task.Task;
+import task.TaskChangeEvent;
+import task.TaskList;
+import utils.BatchingSubscriber;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The primary side of replication. It turns the changes to the TaskList
+ * into an ordered log of records and streams them over TCP to any number
+ * of ReplicaFollower processes, which keep a read-only copy of the list.
+ * It only listens on the loopback address.
+ *
+ * <p>Every record has an offset, one more than the record before it. The
+ * list as it was when the server was created has offset 0. A follower
+ * sends "F | epoch | offset" with the last offset it has applied. If that
+ * offset is still in the log of this server, it is sent the records after
+ * it; otherwise, such as on its first connection, it is sent a snapshot of
+ * the whole list first. The records are:
+ * <ul>
+ * <li>"S | epoch | offset | millis | count", followed by count tasks in
+ * storage format: the whole list, for a snapshot, a sort or a clear.</li>
+ * <li>"A | offset | millis | index | task": a task has been added.</li>
+ * <li>"R | offset | millis | index": a task has been removed.</li>
+ * <li>"C | offset | millis | index | previous index | task": the task at
+ * the previous index has changed status and is now at the index.</li>
+ * <li>"H | offset | millis": a heartbeat with the latest offset, sent when
+ * there has been nothing else to send for a while.</li>
+ * </ul>
+ * The millis are the time the primary logged the record, from which a
+ * follower works out how far it lags behind.
+ *
+ * <p>The log holds the most recent records only. A sort or clear makes
+ * the records before it useless, so they are dropped. The log is fed
+ * asynchronously in batches, so commands never wait for followers.
+ */
+public class ReplicationServer {
+    public static final int DEFAULT_LOG_CAPACITY = 10_000;
+    static final String SEPARATOR = " | ";
+    static final String SEPARATOR_REGEX = "\\s*\\|\\s*";
+    static final String FOLLOW_TYPE = "F";
+    static final String SNAPSHOT_TYPE = "S";
+    static final String ADDED_TYPE = "A";
+    static final String REMOVED_TYPE = "R";
+    static final String STATUS_CHANGED_TYPE = "C";
+    static final String HEARTBEAT_TYPE = "H";
+    static final long HEARTBEAT_MILLIS = 500;
+    private static final int CHANGE_BATCH_SIZE = 256;
+    private static final long CHANGE_LINGER_MILLIS = 2;
+
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final ServerSocket serverSocket;
+    private final BatchingSubscriber<TaskChangeEvent> subscriber;
+    private final List<Socket> followers = new CopyOnWriteArrayList<>();
+    /**
+     * The list as of the latest record, from which snapshots are taken.
+     */
+    private final List<Task> tasks;
+    /**
+     * The records in the log, each at its offset modulo the capacity.
+     */
+    private final String[] records;
+    private long firstOffset = 1;
+    private long headOffset = 0;
+    private long snapshotCount;
+    private volatile boolean isStopped;
+
+    /**
+     * Creates a server with the default log capacity. It must be created
+     * while no command is running, so that it starts from the list as it is.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ReplicationServer(int port) throws IOException {
+        this(port, DEFAULT_LOG_CAPACITY);
+    }
+
+    /**
+     * Creates a server that keeps at most the given number of records. It
+     * must be created while no command is running, so that it starts from
+     * the list as it is.
+     *
+     * @param port        The port to listen on, or 0 for any free port.
+     * @param logCapacity The most records kept for followers to catch up from.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ReplicationServer(int port, int logCapacity) throws IOException {
+        this.records = new String[logCapacity];
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        TaskList taskList = TaskList.newInstance();
+        // Subscribing before copying the list means no change falls in between.
+        subscriber = new BatchingSubscriber<>(CHANGE_BATCH_SIZE, CHANGE_LINGER_MILLIS, this::appendRecords);
+        taskList.getChangePublisher().subscribe(subscriber);
+        tasks = new ArrayList<>(taskList.getTasks());
+    }
+
+    /**
+     * Starts accepting followers on a background thread.
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::acceptFollowers, "duke-replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Stops streaming to the followers and stops accepting new ones.
+     */
+    public void stop() {
+        isStopped = true;
+        subscriber.cancel();
+        closeQuietly(serverSocket);
+        for (Socket follower : followers) {
+            closeQuietly(follower);
+        }
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getHeadOffset() {
+        return headOffset;
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ReplicationServer[followers=%d, headOffset=%d, firstOffset=%d, snapshots=%d]",
+                followers.size(), headOffset, firstOffset, snapshotCount);
+    }
+
+    /**
+     * Turns a batch of changes into records and wakes the followers.
+     */
+    private synchronized void appendRecords(List<TaskChangeEvent> events) {
+        long millis = System.currentTimeMillis();
+        for (TaskChangeEvent event : events) {
+            long offset = headOffset + 1;
+            String record;
+            switch (event.getKind()) {
+            case ADDED:
+                tasks.add(event.getIndex(), event.getTask());
+                record = ADDED_TYPE + SEPARATOR + offset + SEPARATOR + millis + SEPARATOR + event.getIndex()
+                        + SEPARATOR + event.getTask().getStorageStringFormat() + "\n";
+                break;
+            case REMOVED:
+                tasks.remove(event.getIndex());
+                record = REMOVED_TYPE + SEPARATOR + offset + SEPARATOR + millis + SEPARATOR + event.getIndex()
+                        + "\n";
+                break;
+            case STATUS_CHANGED:
+                tasks.remove(event.getPreviousIndex());
+                tasks.add(event.getIndex(), event.getTask());
+                record = STATUS_CHANGED_TYPE + SEPARATOR + offset + SEPARATOR + millis + SEPARATOR
+                        + event.getIndex() + SEPARATOR + event.getPreviousIndex() + SEPARATOR
+                        + event.getTask().getStorageStringFormat() + "\n";
+                break;
+            default:
+                tasks.clear();
+                tasks.addAll(event.getSnapshot().getTasks());
+                record = buildSnapshot(offset, millis);
+                // A follower behind this record needs nothing before it.
+                firstOffset = offset;
+                break;
+            }
+            headOffset = offset;
+            records[(int) (offset % records.length)] = record;
+            firstOffset = Math.max(firstOffset, headOffset - records.length + 1);
+        }
+        notifyAll();
+    }
+
+    private String buildSnapshot(long offset, long millis) {
+        StringBuilder snapshot = new StringBuilder();
+        snapshot.append(SNAPSHOT_TYPE).append(SEPARATOR).append(epoch).append(SEPARATOR).append(offset)
+                .append(SEPARATOR).append(millis).append(SEPARATOR).append(tasks.size()).append('\n');
+        for (Task task : tasks) {
+            snapshot.append(task.getStorageStringFormat()).append('\n');
+        }
+        return snapshot.toString();
+    }
+
+    private void acceptFollowers() {
+        while (!isStopped) {
+            try {
+                Socket follower = serverSocket.accept();
+                follower.setTcpNoDelay(true);
+                followers.add(follower);
+                Thread sender = new Thread(() -> serveFollower(follower), "duke-replication-sender");
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                // The server socket has been closed by stop.
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads where the follower is up to, then sends it records until it
+     * disconnects or the server stops.
+     */
+    private void serveFollower(Socket follower) {
+        try (follower) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(follower.getInputStream(),
+                    StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(follower.getOutputStream(),
+                    StandardCharsets.UTF_8));
+            String request = in.readLine();
+            String[] position = request == null ? new String[0] : request.split(SEPARATOR_REGEX);
+            if (position.length != 3 || !position[0].equals(FOLLOW_TYPE)) {
+                return;
+            }
+            long followerEpoch = Long.parseLong(position[1]);
+            long sentOffset = followerEpoch == epoch ? Long.parseLong(position[2]) : -1;
+            List<String> batch = new ArrayList<>();
+            while (!isStopped) {
+                sentOffset = takeRecords(sentOffset, batch);
+                if (batch.isEmpty()) {
+                    out.write(HEARTBEAT_TYPE + SEPARATOR + sentOffset + SEPARATOR + System.currentTimeMillis() + "\n");
+                }
+                for (String record : batch) {
+                    out.write(record);
+                }
+                out.flush();
+                batch.clear();
+            }
+        } catch (IOException | NumberFormatException e) {
+            // The follower has gone, and reconnects with its offset if it comes back.
+        } finally {
+            followers.remove(follower);
+        }
+    }
+
+    /**
+     * Waits up to a heartbeat for records after the given offset and takes
+     * them, or a snapshot if the log no longer holds them all.
+     *
+     * @return The offset the follower is at once the records are sent.
+     */
+    private synchronized long takeRecords(long sentOffset, List<String> batch) {
+        if (sentOffset == headOffset && !isStopped) {
+            try {
+                wait(HEARTBEAT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (sentOffset < firstOffset - 1 || sentOffset > headOffset) {
+            batch.add(buildSnapshot(headOffset, System.currentTimeMillis()));
+            snapshotCount++;
+            return headOffset;
+        }
+        for (long offset = sentOffset + 1; offset <= headOffset; offset++) {
+            batch.add(records[(int) (offset % records.length)]);
+        }
+        return headOffset;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Nothing more can be done with it.
+        }
+    }
+}
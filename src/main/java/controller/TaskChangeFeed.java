@@ -0,0 +1,152 @@
+package controller;
+
+import task.TaskChangeEvent;
+import task.TaskList;
+import task.TaskListProjection;
+import task.TaskSnapshot;
+import utils.BatchingSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feeds the changes to the TaskList into a TaskListProjection on the
+ * thread of a user interface. The changes are published on other threads,
+ * queued, and applied with at most one pending task on the interface
+ * thread for any number of changes.
+ *
+ * <p>The queue holds at most a fixed number of changes, since the
+ * interface cannot push back on the list. If it falls further behind, such
+ * as during a bulk load, further changes are dropped, and the rows are
+ * reset once from a snapshot taken on the thread that changes the list.
+ * The first rows are shown the same way.
+ */
+public class TaskChangeFeed {
+    /**
+     * The default most changes queued before they are replaced by a snapshot.
+     */
+    public static final int DEFAULT_MAX_PENDING = 10_000;
+    private static final int CHANGE_BATCH_SIZE = 256;
+
+    private final TaskList taskList;
+    private final TaskListProjection projection;
+    private final Executor listExecutor;
+    private final Executor uiExecutor;
+    private final int maxPending;
+    private final ConcurrentLinkedQueue<TaskChangeEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean isApplyScheduled = new AtomicBoolean();
+    /**
+     * Whether changes are dropped because a snapshot is about to be taken,
+     * which would hold them all. It is cleared on the thread that changes
+     * the list as the snapshot is taken, before any later change is made.
+     */
+    private volatile boolean isDropping;
+    /**
+     * Whether a snapshot is on its way to the interface, so that the rows
+     * must not be changed until it has been shown.
+     */
+    private volatile boolean isResetPending;
+    private BatchingSubscriber<TaskChangeEvent> subscriber;
+
+    /**
+     * Creates a feed into the given projection.
+     *
+     * @param taskList     The list to follow.
+     * @param projection   The projection, only used on the thread of the interface.
+     * @param listExecutor Runs tasks on the thread that changes the list, between commands.
+     * @param uiExecutor   Runs tasks on the thread of the interface.
+     * @param maxPending   The most changes queued before they are replaced by a snapshot.
+     */
+    public TaskChangeFeed(TaskList taskList, TaskListProjection projection, Executor listExecutor,
+            Executor uiExecutor, int maxPending) {
+        this.taskList = taskList;
+        this.projection = projection;
+        this.listExecutor = listExecutor;
+        this.uiExecutor = uiExecutor;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Subscribes to the changes and shows the list as it is.
+     *
+     * @param lingerMillis How long a change may wait for more to be applied with it.
+     */
+    public void start(long lingerMillis) {
+        subscriber = new BatchingSubscriber<>(CHANGE_BATCH_SIZE, lingerMillis, this::queueChanges);
+        isDropping = true;
+        isResetPending = true;
+        taskList.getChangePublisher().subscribe(subscriber);
+        requestSnapshot();
+    }
+
+    /**
+     * Stops following the list. The rows are left as they are.
+     */
+    public void stop() {
+        if (subscriber != null) {
+            subscriber.cancel();
+            subscriber = null;
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private void queueChanges(List<TaskChangeEvent> events) {
+        if (isDropping) {
+            // Made before the coming snapshot, which holds them already.
+            return;
+        }
+        if (pendingCount.get() + events.size() > maxPending) {
+            // Only the interface thread takes changes from the queue, so that it always applies a run
+            // without gaps. Those already queued are skipped once the snapshot is shown.
+            isDropping = true;
+            isResetPending = true;
+            requestSnapshot();
+            return;
+        }
+        pendingEvents.addAll(events);
+        pendingCount.addAndGet(events.size());
+        if (isApplyScheduled.compareAndSet(false, true)) {
+            uiExecutor.execute(this::applyChanges);
+        }
+    }
+
+    /**
+     * Takes a snapshot on the thread that changes the list, so that it is
+     * consistent, and shows it on the thread of the interface. Every change
+     * made after it is queued again.
+     */
+    private void requestSnapshot() {
+        listExecutor.execute(() -> {
+            TaskSnapshot snapshot = taskList.snapshot();
+            isDropping = false;
+            uiExecutor.execute(() -> {
+                projection.reset(snapshot);
+                isResetPending = false;
+                // Changes queued since the snapshot; those it holds already are skipped.
+                applyChanges();
+            });
+        });
+    }
+
+    private void applyChanges() {
+        isApplyScheduled.set(false);
+        if (isResetPending) {
+            return;
+        }
+        List<TaskChangeEvent> events = new ArrayList<>();
+        TaskChangeEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            events.add(event);
+        }
+        pendingCount.addAndGet(-events.size());
+        projection.accept(events);
+    }
+}
@@ -0,0 +1,101 @@
+package controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import task.Task;
+import task.TaskList;
+import task.TaskListProjection;
+
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A side panel showing every task in a table that follows the TaskList as
+ * it changes, so there is no need to type "list" after every command. The
+ * changes are applied one row at a time through a TaskListProjection, and
+ * the table only creates cells for the visible rows, so it stays quick
+ * however long the list grows.
+ *
+ * <p>Changes are published on other threads and applied on the JavaFX
+ * application thread through a TaskChangeFeed, which replaces a backlog
+ * too long to catch up with by a single snapshot.
+ */
+public class TaskTable extends TableView<Task> {
+    /**
+     * About one frame, so that a burst of changes is shown at once.
+     */
+    private static final long CHANGE_LINGER_MILLIS = 16;
+    private static final String DONE_SYMBOL = "\u2713"; // "✓"
+    private static final String NOT_DONE_SYMBOL = "\u2718"; // "✘"
+
+    private final ObservableList<Task> rows = FXCollections.observableArrayList();
+    private final TaskListProjection projection = new TaskListProjection(rows, rows::setAll);
+    private TaskChangeFeed feed;
+
+    /**
+     * Creates an empty table. It shows nothing until it follows a TaskList.
+     */
+    public TaskTable() {
+        setItems(rows);
+        setPlaceholder(new Label("No tasks yet."));
+        getColumns().add(createIndexColumn());
+        getColumns().add(createColumn("", 28, task -> task.getStatus() == Task.DONE ? DONE_SYMBOL : NOT_DONE_SYMBOL));
+        getColumns().add(createColumn("Type", 70, task -> task.getClass().getSimpleName()));
+        getColumns().add(createColumn("Task", 140, Task::getName));
+        getColumns().add(createColumn("When", 110, Task::getAdditionalInfo));
+    }
+
+    /**
+     * Starts showing the given list and following its changes. It must be
+     * called on the JavaFX application thread.
+     *
+     * @param taskList     The list to show.
+     * @param listExecutor Runs tasks on the thread that changes the list, between commands.
+     */
+    public void follow(TaskList taskList, Executor listExecutor) {
+        stopFollowing();
+        feed = new TaskChangeFeed(taskList, projection, listExecutor, Platform::runLater,
+                TaskChangeFeed.DEFAULT_MAX_PENDING);
+        feed.start(CHANGE_LINGER_MILLIS);
+    }
+
+    /**
+     * Stops following the list. The rows are left as they are.
+     */
+    public void stopFollowing() {
+        if (feed != null) {
+            feed.stop();
+            feed = null;
+        }
+    }
+
+    private static TableColumn<Task, Integer> createIndexColumn() {
+        TableColumn<Task, Integer> column = new TableColumn<>("#");
+        column.setPrefWidth(48);
+        column.setSortable(false);
+        // The number is worked out for the visible rows only, so a change never renumbers the others.
+        column.setCellFactory(tableColumn -> new TableCell<>() {
+            @Override
+            protected void updateItem(Integer item, boolean isEmpty) {
+                super.updateItem(item, isEmpty);
+                setText(isEmpty ? null : Integer.toString(getIndex() + 1));
+            }
+        });
+        return column;
+    }
+
+    private static TableColumn<Task, String> createColumn(String title, double width, Function<Task, String> value) {
+        TableColumn<Task, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        // Sorting is done with the "sort" command, so that the table keeps the order of the list.
+        column.setSortable(false);
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(value.apply(cellData.getValue())));
+        return column;
+    }
+}
@@ -0,0 +1,84 @@
+package controller;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the thread of a user interface is kept busy by each
+ * command: taking the input, and later showing the response, but not the
+ * time the command runs elsewhere in between. A command is timed by a
+ * Timing, paused while the interface is free.
+ */
+public class UiThreadStats {
+    private long commandCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Starts timing a command on the thread of the interface.
+     *
+     * @return The timing, running until it is paused.
+     */
+    public Timing start() {
+        return new Timing();
+    }
+
+    public synchronized long getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Returns the average time the interface was busy per command, in milliseconds.
+     */
+    public synchronized double getAverageMillis() {
+        return commandCount == 0 ? 0 : totalNanos / (double) commandCount / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the longest time the interface was busy for one command, in milliseconds.
+     */
+    public synchronized double getMaxMillis() {
+        return maxNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("UiThreadStats[commands=%d, averageMillis=%.3f, maxMillis=%.3f]", commandCount,
+                getAverageMillis(), getMaxMillis());
+    }
+
+    private synchronized void record(long nanos) {
+        commandCount++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * The time the interface has been busy with one command so far.
+     */
+    public class Timing {
+        private long busyNanos;
+        private long resumedAt = System.nanoTime();
+
+        /**
+         * Stops counting while the interface is free.
+         */
+        public void pause() {
+            busyNanos += System.nanoTime() - resumedAt;
+        }
+
+        /**
+         * Counts again once the interface is busy with the command again.
+         */
+        public void resume() {
+            resumedAt = System.nanoTime();
+        }
+
+        /**
+         * Stops counting and records the command.
+         */
+        public void finish() {
+            pause();
+            record(busyNanos);
+        }
+    }
+}
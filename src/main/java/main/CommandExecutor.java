@@ -0,0 +1,194 @@
+package main;
+
+import command.CommandResult;
+import task.TaskSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs commands from many threads through one Duke. Commands that change
+ * anything are put on a lock-free queue and run one after another by a
+ * single writer thread, which takes every command that is waiting as one
+ * batch and saves the tasks once per batch. Read-only commands, see
+ * Duke.query, run straight away on the calling thread against the latest
+ * snapshot the writer has published, so they never wait for a lock or for
+ * the writer.
+ *
+ * <p>A command submitted by a thread runs after all commands that thread
+ * submitted before it. A read-only command sees every change whose result
+ * has been returned, but may not see changes still waiting in the queue.
+ */
+public class CommandExecutor implements AutoCloseable {
+    /**
+     * The most commands run between two saves.
+     */
+    public static final int MAX_BATCH_SIZE = 256;
+    private static final String CLOSED_MESSAGE = "The executor has been closed.";
+
+    private final Duke duke;
+    private final ConcurrentLinkedQueue<PendingCommand> queue = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile TaskSnapshot snapshot;
+    private volatile boolean isClosed;
+    private long batchCount;
+    private long batchedCommandCount;
+
+    /**
+     * Loads the tasks of the given Duke and starts the writer thread. From
+     * now on, the Duke must only be used through this executor.
+     *
+     * @param duke The Duke that runs the commands.
+     */
+    public CommandExecutor(Duke duke) {
+        this.duke = duke;
+        duke.loadTasks();
+        snapshot = duke.snapshot();
+        writer = new Thread(this::runWriter, "duke-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Runs a command, on the calling thread if it is read-only and on the
+     * writer thread otherwise.
+     *
+     * @param input The user input.
+     * @return The result of the command, which is complete once the changes
+     * it made have been saved, or completes exceptionally with an
+     * UncheckedIOException if they could not be saved.
+     */
+    public CompletableFuture<CommandResult> submit(String input) {
+        CommandResult result = duke.query(input, snapshot);
+        if (result != null) {
+            return CompletableFuture.completedFuture(result);
+        }
+        PendingCommand command = new PendingCommand(input);
+        if (isClosed) {
+            command.fail(new IllegalStateException(CLOSED_MESSAGE));
+            return command.result;
+        }
+        queue.offer(command);
+        // The writer may have seen the queue empty and stopped since the check above.
+        if (isClosed && queue.remove(command)) {
+            command.fail(new IllegalStateException(CLOSED_MESSAGE));
+            return command.result;
+        }
+        LockSupport.unpark(writer);
+        return command.result;
+    }
+
+    /**
+     * Runs a command and waits for its result.
+     *
+     * @param input The user input.
+     * @return The result of the command.
+     */
+    public CommandResult execute(String input) {
+        return submit(input).join();
+    }
+
+    /**
+     * Returns the average number of commands the writer has run per batch.
+     */
+    public synchronized double getAverageBatchSize() {
+        return batchCount == 0 ? 0 : (double) batchedCommandCount / batchCount;
+    }
+
+    /**
+     * Runs the commands still in the queue, saves them and stops the writer.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        List<PendingCommand> batch = new ArrayList<>();
+        while (true) {
+            PendingCommand command = queue.poll();
+            if (command == null) {
+                if (isClosed) {
+                    // A command offered just before the executor was closed is still run.
+                    command = queue.poll();
+                    if (command == null) {
+                        return;
+                    }
+                } else {
+                    LockSupport.park(this);
+                    continue;
+                }
+            }
+            batch.clear();
+            do {
+                batch.add(command);
+            } while (batch.size() < MAX_BATCH_SIZE && (command = queue.poll()) != null);
+            runBatch(batch);
+        }
+    }
+
+    /**
+     * Runs the batch with saving deferred, saves once, publishes a new
+     * snapshot and only then hands out the results.
+     */
+    private void runBatch(List<PendingCommand> batch) {
+        CommandResult[] results = new CommandResult[batch.size()];
+        Throwable[] failures = new Throwable[batch.size()];
+        try {
+            duke.setAutoSave(false);
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        results[i] = duke.execute(batch.get(i).input);
+                    } catch (Throwable e) {
+                        // Even an Error only fails its own command, so no submitter waits forever.
+                        failures[i] = e;
+                    }
+                }
+            } finally {
+                duke.setAutoSave(true);
+                snapshot = duke.snapshot();
+            }
+        } catch (Throwable e) {
+            // Saving failed, so none of the changes in the batch can be relied on.
+            Arrays.fill(failures, e);
+        }
+        synchronized (this) {
+            batchCount++;
+            batchedCommandCount += batch.size();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (failures[i] != null) {
+                batch.get(i).fail(failures[i]);
+            } else {
+                batch.get(i).result.complete(results[i]);
+            }
+        }
+    }
+
+    /**
+     * A command waiting in the queue, with the result its submitter waits for.
+     */
+    private static class PendingCommand {
+        private final String input;
+        private final CompletableFuture<CommandResult> result = new CompletableFuture<>();
+
+        PendingCommand(String input) {
+            this.input = input;
+        }
+
+        void fail(Throwable failure) {
+            result.completeExceptionally(failure);
+        }
+    }
+}
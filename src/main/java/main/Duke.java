@@ -2,9 +2,14 @@ package main;
 
 import command.Command;
 import command.CommandCentre;
+import command.CommandResult;
 import exception.InvalidArgumentException;
+import task.SortOrder;
 import task.Task;
+import task.TaskCursor;
+import task.TaskHistory;
 import task.TaskList;
+import task.TaskSnapshot;
 import utils.Parser;
 import utils.Storage;
 import utils.Ui;
@@ -18,16 +23,32 @@ public class Duke {
 
     private static final String ROOT = Paths.get(System.getProperty("user.home")).toString();
     private static final String STORAGE_PATH = "\\duke.txt";
+    /**
+     * The storage file used when no other file is given.
+     */
+    public static final String DEFAULT_STORAGE_PATH = ROOT + STORAGE_PATH;
     private static final Logger LOGGER = Logger.getLogger(Duke.class.getName());
     public static final String EXIT_MESSAGE = "main.Duke.EXIT_MESSAGE";
     private static final boolean RESET_TASK_LIST = false;
-
+    /**
+     * The longest list that is still printed in full when no page is asked for.
+     */
+    private static final int MAX_UNPAGED_LIST_SIZE = 200;
+    /**
+     * The system property that sets the byte budget of the undo history.
+     */
+    public static final String HISTORY_BUDGET_PROPERTY = "duke.historyBytes";
     private final TaskList taskList;
+    private final TaskHistory history;
     private final Storage storage;
     private final Ui ui;
     private final Parser parser;
     private final CommandCentre commandCentre;
     private boolean isExiting;
+    private boolean isLoaded;
+    private String exitResponse;
+    private TaskCursor cursor;
+    private String cursorTitle;
 
 
     /**
@@ -36,9 +57,33 @@ public class Duke {
      * is true.
      */
     public Duke() {
+        this(DEFAULT_STORAGE_PATH);
+    }
+
+    /**
+     * Initializes Duke with the tasks stored in the given file.
+     *
+     * @param storagePath The full path name of the storage file.
+     */
+    public Duke(String storagePath) {
+        this(storagePath, false);
+    }
+
+    /**
+     * Initializes Duke with the tasks stored in the given file, which are
+     * either loaded straight away or on the first call to loadTasks or
+     * getResponse.
+     *
+     * @param storagePath    The full path name of the storage file.
+     * @param isLoadedLazily Whether loading the tasks is left for later.
+     */
+    public Duke(String storagePath, boolean isLoadedLazily) {
         taskList = TaskList.newInstance();
-        LOGGER.info("Storage directory: "+ ROOT);
-        storage = new Storage(ROOT + STORAGE_PATH);
+        LOGGER.info("Storage file: " + storagePath);
+        history = new TaskHistory(TaskHistory.DEFAULT_CAPACITY,
+                Integer.getInteger(HISTORY_BUDGET_PROPERTY, TaskHistory.DEFAULT_BYTE_BUDGET));
+        storage = new Storage(storagePath);
+        storage.setHistory(history);
         ui = new Ui();
         commandCentre = new CommandCentre();
         commandCentre.setUi(ui);
@@ -46,10 +91,27 @@ public class Duke {
         parser.setCommandCentre(commandCentre);
         isExiting = false;
         initializeCommands();
+        if (!isLoadedLazily) {
+            loadTasks();
+        }
+    }
+
+    /**
+     * Loads the tasks from the storage file, unless they have been loaded
+     * already. It may be called from a background thread while Duke waits
+     * for its first command; getResponse then waits for it to finish.
+     */
+    public synchronized void loadTasks() {
+        if (isLoaded) {
+            return;
+        }
+        storage.load();
         if (RESET_TASK_LIST) {
             taskList.clear();
+            history.clear();
             storage.deleteData();
         }
+        isLoaded = true;
     }
 
 
@@ -59,16 +121,150 @@ public class Duke {
      * @param input The user input in this particular communication.
      */
     public String getResponse(String input) {
+        CommandResult result = execute(input);
+        if (isExiting) {
+            exitResponse = ui.render(result);
+            return EXIT_MESSAGE;
+        }
+        return ui.render(result);
+    }
+
+    /**
+     * Runs the command in the given user input without formatting the
+     * response, for callers that render it later or not at all. The command
+     * runs with the storage file locked, after any changes other processes
+     * have made to it are read.
+     *
+     * @param input The user input in this particular communication.
+     * @return The result of the command, including any error in the input.
+     */
+    public CommandResult execute(String input) {
+        loadTasks();
         parser.setUi(ui);
         String action = parser.getNextAction(input + "\n");
-        if (action != null) {
-            commandCentre.execute(action);
+        if (action == null) {
+            return ui.takeResult();
         }
-        if (isExiting) {
-            return EXIT_MESSAGE;
+        storage.acquire();
+        try {
+            return commandCentre.execute(action);
+        } finally {
+            storage.release();
         }
-        String output = ui.getOutputAndClearBuilder();
-        return output;
+    }
+
+    /**
+     * Runs a read-only command against a snapshot of the task list, without
+     * touching any state that commands change, so that it can run on any
+     * thread while another thread runs the other commands. The read-only
+     * commands are "list", "find" and "help". A paged result opens no
+     * cursor, so "next" and "prev" do not continue from it.
+     *
+     * @param input    The user input.
+     * @param snapshot The snapshot to read the tasks from.
+     * @return The result of the command, including any error in the input,
+     * or null if the input is not a read-only command.
+     */
+    public CommandResult query(String input, TaskSnapshot snapshot) {
+        Ui queryUi = new Ui();
+        Parser queryParser = new Parser();
+        queryParser.setCommandCentre(commandCentre);
+        queryParser.setUi(queryUi);
+        String action = queryParser.getNextAction(input + "\n");
+        if (action == null) {
+            return queryUi.takeResult();
+        }
+        int[] pageOptions;
+        switch (action) {
+        case "help":
+            queryUi.printHelpMessage();
+            break;
+
+        case "list":
+            pageOptions = queryParser.parsePageOptions();
+            if (pageOptions == null) {
+                break;
+            }
+            if (snapshot.isEmpty()) {
+                queryUi.printEmptyTaskListMessage();
+            } else if (pageOptions[0] == Parser.UNPAGED && snapshot.size() <= MAX_UNPAGED_LIST_SIZE) {
+                queryUi.printTaskList(snapshot.getTasks(), Ui.LIST_ACTION_TITLE);
+            } else {
+                printFirstPage(queryUi, snapshot.openCursor(pageOptions[1]), Ui.LIST_ACTION_TITLE, pageOptions[0]);
+            }
+            break;
+
+        case "find":
+            pageOptions = queryParser.parsePageOptions();
+            String keyword = pageOptions == null ? null : queryParser.parseKeyword();
+            if (keyword == null) {
+                break;
+            }
+            List<Task> findResult = snapshot.generateListByKeyword(keyword);
+            if (pageOptions[0] == Parser.UNPAGED && findResult.size() <= MAX_UNPAGED_LIST_SIZE) {
+                queryUi.printTaskList(findResult, Ui.FIND_ACTION_TITLE);
+            } else {
+                printFirstPage(queryUi, snapshot.openCursor(findResult, pageOptions[1]), Ui.FIND_ACTION_TITLE,
+                        pageOptions[0]);
+            }
+            break;
+
+        default:
+            return null;
+        }
+        return queryUi.takeResult();
+    }
+
+    /**
+     * Takes a snapshot of the task list for query. It must be called on
+     * the thread that runs execute.
+     *
+     * @return The snapshot.
+     */
+    public TaskSnapshot snapshot() {
+        return taskList.snapshot();
+    }
+
+    /**
+     * Formats the result of a command as the text shown to the user.
+     *
+     * @param result        The result returned by execute.
+     * @param outputBuilder The builder the text is appended to.
+     */
+    public void render(CommandResult result, StringBuilder outputBuilder) {
+        ui.render(result, outputBuilder);
+    }
+
+    public boolean isExiting() {
+        return isExiting;
+    }
+
+    /**
+     * Sets whether every change to the tasks is saved straight away, or only
+     * when saveTasks is called.
+     *
+     * @param isAutoSave True to save every change, false to defer saving.
+     * @throws java.io.UncheckedIOException If deferred changes cannot be saved when saving is turned back on.
+     */
+    public void setAutoSave(boolean isAutoSave) {
+        storage.setAutoSave(isAutoSave);
+    }
+
+    /**
+     * Saves any changes to the tasks that have been deferred.
+     */
+    public void saveTasks() {
+        storage.flush();
+    }
+
+    /**
+     * Gets the response to the command that made Duke exit, which
+     * getResponse returns as EXIT_MESSAGE instead.
+     *
+     * @return The String containing the message.
+     */
+    public String getExitResponse() {
+        return exitResponse;
     }
 
     /**
@@ -87,7 +283,12 @@ public class Duke {
      * them to command centre.
      */
     private void initializeCommands() {
-        commandCentre.register("bye", () -> {
+        commandCentre.registerExact("bye", () -> {
+            if (history.isGroupOpen()) {
+                rollbackTransaction();
+            }
+            LOGGER.info(taskList.getFindCache().toString());
+            LOGGER.info(taskList.getChangeStats().toString());
             ui.printByeMessage();
             isExiting = true;
         });
@@ -95,32 +296,44 @@ public class Duke {
         commandCentre.register("help", ui::printHelpMessage);
 
         commandCentre.register("list", () -> {
-            if (taskList.isEmpty()) {
-                ui.printEmptyTaskListMessage();
-            } else {
-                ui.printTaskList(taskList.getTasks(), Ui.LIST_ACTION_TITLE);
+            int[] pageOptions = parser.parsePageOptions();
+            if (pageOptions != null) {
+                printList(pageOptions[0], pageOptions[1]);
+            }
+        });
+
+        commandCentre.register("next", () -> {
+            if (!parser.hasArguments()) {
+                turnPage(1);
+                return;
+            }
+            Integer count = parser.parseUpcomingCount();
+            if (count != null) {
+                List<Task> upcomingTasks = taskList.generateUpcomingList(count);
+                if (upcomingTasks.isEmpty()) {
+                    ui.printNoUpcomingTaskMessage();
+                } else {
+                    ui.printTaskList(upcomingTasks, Ui.UPCOMING_ACTION_TITLE);
+                }
             }
         });
 
+        commandCentre.register("prev", () -> turnPage(-1));
+
         commandCentre.register("done", () -> {
             Integer idx = parser.parseTaskIdx();
             if (idx != null) {
+                int doneIdx;
                 try {
-                    taskList.markAsDone(idx);
+                    doneIdx = taskList.markAsDone(idx);
                 } catch (InvalidArgumentException e) {
                     ui.appendMessage(e.getMessage());
                     return;
                 }
 
+                history.recordDone(doneIdx, taskList.get(doneIdx));
                 storage.updateData();
-                ui.printMarkedAsDoneMessage(taskList.get(idx));
-
-                commandCentre.addToHistory(() -> {
-                    taskList.markAsNotDone(idx);
-                    storage.updateData();
-                    ui.printUndoMessage();
-                    ui.printMarkedAsNotDoneMessage(taskList.get(idx));
-                });
+                ui.printMarkedAsDoneMessage(taskList.get(doneIdx));
             }
         });
 
@@ -128,15 +341,9 @@ public class Duke {
             Integer idx = parser.parseTaskIdx();
             if (idx != null) {
                 Task task = taskList.deleteTask(idx);
+                history.recordDelete(idx, task);
                 storage.updateData();
                 ui.printTaskDeletedMessage(task, taskList.size());
-
-                commandCentre.addToHistory(() -> {
-                    taskList.insertTask(task, idx);
-                    storage.updateData();
-                    ui.printUndoMessage();
-                    ui.printTaskAddedMessage(task, taskList.size());
-                });
             }
         });
 
@@ -144,9 +351,9 @@ public class Duke {
             String taskName = parser.parseTodoDetail();
             if (taskName != null) {
                 Task task = taskList.addNewTodoTask(taskName, false);
+                history.recordAdd(taskList.indexOf(task), task);
                 storage.updateData();
                 ui.printTaskAddedMessage(task, taskList.size());
-                commandCentre.addToHistory(generateDeleteTaskCommand(taskList.size()-1, true));
             }
         });
 
@@ -154,9 +361,9 @@ public class Duke {
             String[] taskInfo = parser.parseDeadlineDetail();
             if (taskInfo != null) {
                 Task newTask = taskList.addNewDeadlineTask(taskInfo[0], taskInfo[1], false);
+                history.recordAdd(taskList.indexOf(newTask), newTask);
                 storage.updateData();
                 ui.printTaskAddedMessage(newTask, taskList.size());
-                commandCentre.addToHistory(generateDeleteTaskCommand(taskList.size()-1, true));
             }
         });
 
@@ -164,45 +371,237 @@ public class Duke {
             String[] taskInfo = parser.parseEventDetail();
             if (taskInfo != null) {
                 Task newTask = taskList.addNewEventTask(taskInfo[0], taskInfo[1], false);
+                history.recordAdd(taskList.indexOf(newTask), newTask);
                 storage.updateData();
                 ui.printTaskAddedMessage(newTask, taskList.size());
-                commandCentre.addToHistory(generateDeleteTaskCommand(taskList.size()-1, true));
             }
         });
 
         commandCentre.register("find", () -> {
+            int[] pageOptions = parser.parsePageOptions();
+            if (pageOptions == null) {
+                return;
+            }
             String keyword = parser.parseKeyword();
             if (keyword != null) {
                 List<Task> findResult = taskList.generateListByKeyword(keyword);
-                ui.printTaskList(findResult, Ui.FIND_ACTION_TITLE);
+                if (pageOptions[0] == Parser.UNPAGED && findResult.size() <= MAX_UNPAGED_LIST_SIZE) {
+                    ui.printTaskList(findResult, Ui.FIND_ACTION_TITLE);
+                } else {
+                    openCursor(taskList.openCursor(findResult, pageOptions[1]), Ui.FIND_ACTION_TITLE,
+                            pageOptions[0]);
+                }
             }
         });
 
-        commandCentre.register("undo", commandCentre::undo);
+        commandCentre.registerExact("undo", () -> {
+            if (history.isGroupOpen()) {
+                ui.appendMessage(ui.buildTransactionOpenMessage());
+                return;
+            }
+            if (!history.canUndo()) {
+                ui.printUndoNotAllowedMessage();
+                return;
+            }
+            List<TaskHistory.Change> changes;
+            try {
+                changes = history.undo(taskList);
+            } catch (InvalidArgumentException e) {
+                // The history has put the list back as it was, so there is nothing to save.
+                ui.appendMessage(e.getMessage());
+                return;
+            }
+            storage.updateData();
+            ui.printUndoMessage();
+            printChanges(changes);
+        });
+
+        commandCentre.registerExact("redo", () -> {
+            if (history.isGroupOpen()) {
+                ui.appendMessage(ui.buildTransactionOpenMessage());
+                return;
+            }
+            if (!history.canRedo()) {
+                ui.printRedoNotAllowedMessage();
+                return;
+            }
+            List<TaskHistory.Change> changes;
+            try {
+                changes = history.redo(taskList);
+            } catch (InvalidArgumentException e) {
+                // The history has put the list back as it was, so there is nothing to save.
+                ui.appendMessage(e.getMessage());
+                return;
+            }
+            storage.updateData();
+            ui.printRedoMessage();
+            printChanges(changes);
+        });
+
+        commandCentre.register("begin", () -> {
+            if (history.isGroupOpen()) {
+                ui.appendMessage(ui.buildTransactionOpenMessage());
+                return;
+            }
+            history.beginGroup();
+            storage.beginTransaction();
+            ui.printTransactionBegunMessage();
+        });
+
+        commandCentre.register("commit", () -> {
+            if (!history.isGroupOpen()) {
+                ui.appendMessage(ui.buildNoTransactionMessage());
+                return;
+            }
+            int changeCount = history.getGroupSize();
+            history.endGroup();
+            storage.commitTransaction();
+            ui.printTransactionCommittedMessage(changeCount);
+        });
+
+        commandCentre.registerExact("rollback", () -> {
+            if (!history.isGroupOpen()) {
+                ui.appendMessage(ui.buildNoTransactionMessage());
+                return;
+            }
+            rollbackTransaction();
+        });
 
         commandCentre.register("sort", new Command() {
             @Override
             public void execute() {
-                String[] sortInfo = parser.parseSortInfo();
-                String keyword = sortInfo[0];
-                int sortCategory = parser.parseKeywordAsSortCategory(keyword);
-                boolean isReversed = sortInfo[1].equals("r");
-                boolean isSuccessful = taskList.sort(sortCategory, isReversed);
-                if (isSuccessful) {
-                    ui.printListSortedMessage();
-                    ui.printTaskList(taskList.getTasks(), Ui.LIST_ACTION_TITLE);
+                // A sort cannot be rolled back, so it is kept out of transactions.
+                if (history.isGroupOpen()) {
+                    ui.appendMessage(ui.buildTransactionOpenMessage());
+                    return;
+                }
+                if (parser.isSortOff()) {
+                    taskList.setSortOrder(null);
+                    storage.updateData();
+                    ui.printSortOffMessage();
+                    return;
+                }
+                SortOrder sortOrder = parser.parseSortOrder();
+                if (sortOrder != null && taskList.sort(sortOrder)) {
+                    storage.updateData();
+                    ui.printListSortedMessage(sortOrder.toString());
+                    printList(Parser.UNPAGED, Parser.DEFAULT_PAGE_SIZE);
                 }
             }
         });
+
+        commandCentre.registerAlias("dl", "deadline");
+        commandCentre.registerAlias("ev", "event");
+        commandCentre.registerAlias("del", "delete");
     }
 
-    private Command generateDeleteTaskCommand(int idx, boolean isUndo) {
-        return () -> {
-            Task task = taskList.deleteTask(idx);
-            storage.updateData();
-            if (isUndo) ui.printUndoMessage();
-            ui.printTaskDeletedMessage(task, taskList.size());
-        };
+    /**
+     * Prints the task list, one page at a time if a page is asked for or the
+     * list is too long to be printed in full.
+     *
+     * @param pageNumber The page to be printed, or Parser.UNPAGED.
+     * @param pageSize   The maximum number of tasks on each page.
+     */
+    private void printList(int pageNumber, int pageSize) {
+        if (taskList.isEmpty()) {
+            ui.printEmptyTaskListMessage();
+        } else if (pageNumber == Parser.UNPAGED && taskList.size() <= MAX_UNPAGED_LIST_SIZE) {
+            ui.printTaskList(taskList.getTasks(), Ui.LIST_ACTION_TITLE);
+        } else {
+            openCursor(taskList.openCursor(pageSize), Ui.LIST_ACTION_TITLE, pageNumber);
+        }
+    }
+
+    /**
+     * Makes the given cursor the one used by "next" and "prev" and prints
+     * the requested page of it.
+     *
+     * @param newCursor  The cursor over the tasks to be printed.
+     * @param title      The preamble to be printed before each page.
+     * @param pageNumber The page to be printed first, or Parser.UNPAGED for the first page.
+     */
+    private void openCursor(TaskCursor newCursor, String title, int pageNumber) {
+        if (printFirstPage(ui, newCursor, title, pageNumber)) {
+            cursor = newCursor;
+            cursorTitle = title;
+        }
+    }
+
+    /**
+     * Moves a new cursor to the requested page and prints it.
+     *
+     * @param ui         The Ui the page is printed to.
+     * @param newCursor  The cursor over the tasks to be printed.
+     * @param title      The preamble to be printed before the page.
+     * @param pageNumber The page to be printed, or Parser.UNPAGED for the first page.
+     * @return True if the page exists and was printed, false otherwise.
+     */
+    private static boolean printFirstPage(Ui ui, TaskCursor newCursor, String title, int pageNumber) {
+        int firstPage = pageNumber == Parser.UNPAGED ? 1 : pageNumber;
+        if (firstPage > newCursor.getPageCount()) {
+            ui.appendMessage(ui.buildInvalidPageNumberMessage(newCursor.getPageCount()));
+            return false;
+        }
+        List<Task> page = newCursor.page(firstPage);
+        ui.printTaskPage(page, newCursor.getOffset(), newCursor.getPageNumber(), newCursor.getPageCount(), title);
+        return true;
+    }
+
+    /**
+     * Moves the current cursor forward or backward by one page and prints
+     * that page.
+     *
+     * @param direction 1 to move to the next page, -1 to move to the previous one.
+     */
+    private void turnPage(int direction) {
+        if (cursor == null) {
+            ui.appendMessage(ui.buildNoPagedResultMessage());
+        } else if (direction > 0 && cursor.hasNext()) {
+            printPage(cursor.next());
+        } else if (direction < 0 && cursor.hasPrevious()) {
+            printPage(cursor.previous());
+        } else {
+            ui.appendMessage(ui.buildNoMorePagesMessage());
+        }
+    }
+
+    private void printPage(List<Task> page) {
+        ui.printTaskPage(page, cursor.getOffset(), cursor.getPageNumber(), cursor.getPageCount(), cursorTitle);
+    }
+
+    /**
+     * Reverts the changes of the open transaction in memory and ends it
+     * without writing anything.
+     */
+    private void rollbackTransaction() {
+        List<TaskHistory.Change> changes = history.rollbackGroup(taskList);
+        storage.rollbackTransaction();
+        ui.printTransactionRolledBackMessage(changes.size());
+    }
+
+    /**
+     * Prints what undoing or redoing an action did to its tasks.
+     *
+     * @param changes The outcome of the undo or redo.
+     */
+    private void printChanges(List<TaskHistory.Change> changes) {
+        for (TaskHistory.Change change : changes) {
+            Task task = change.getTask();
+            switch (change.getEffect()) {
+            case ADDED:
+                ui.printTaskAddedMessage(task, change.getTaskCount());
+                break;
+            case DELETED:
+                ui.printTaskDeletedMessage(task, change.getTaskCount());
+                break;
+            case MARKED_DONE:
+                ui.printMarkedAsDoneMessage(task);
+                break;
+            default:
+                ui.printMarkedAsNotDoneMessage(task);
+                break;
+            }
+        }
     }
 
 }
@@ -3,6 +3,7 @@ package main;
 import java.io.IOException;
 
 import controller.MainWindow;
+import controller.Repl;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -13,8 +14,14 @@ import javafx.stage.Stage;
  * The application entry point for Duke GUI.
  */
 public class Main extends Application {
+    /**
+     * Set this system property to "true" to write the time from the start of
+     * the JVM to the first window being shown to standard error.
+     */
+    public static final String STARTUP_REPORT_PROPERTY = "duke.startupReport";
 
     private Duke duke = new Duke();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
@@ -23,12 +30,22 @@ public class Main extends Application {
             AnchorPane ap = fxmlLoader.load();
             Scene scene = new Scene(ap);
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setDuke(duke);
-            fxmlLoader.<MainWindow>getController().printWelcomeMessage();
+            mainWindow = fxmlLoader.getController();
+            mainWindow.setDuke(duke);
+            mainWindow.printWelcomeMessage();
             stage.show();
+            if (Boolean.getBoolean(STARTUP_REPORT_PROPERTY)) {
+                System.err.printf("First window shown after %d ms.%n", Repl.getMillisSinceJvmStart());
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.shutdown();
+        }
+    }
 }
\ No newline at end of file
@@ -1,9 +1,5 @@
 package task;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-
 /**
  * A Task that has a deadline in the format DD/MM/YYYY HHmm
  * as its additional info.
@@ -13,7 +9,7 @@ public class Deadline extends Task {
     private String additionalInfo;
 
     Deadline(String name, String additionalInfo) {
-        super(name);
+        super(name, additionalInfo);
         this.additionalInfo = additionalInfo;
     }
 
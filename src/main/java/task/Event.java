@@ -1,9 +1,5 @@
 package task;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-
 /**
  * A Task that has a additional info component (that is usually
  * a venue).
@@ -18,7 +14,7 @@ public class Event extends Task {
     private String additionalInfo;
 
     Event(String name, String additionalInfo) {
-        super(name);
+        super(name, additionalInfo);
         this.additionalInfo = additionalInfo;
     }
 
@@ -0,0 +1,141 @@
+package task;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of find results. Every entry is
+ * stamped with the TaskList version it is valid for, so an entry that
+ * missed an invalidation can never be served. When a task is added or
+ * removed, only the entries whose query matches that task are dropped and
+ * the rest are re-stamped with the new version.
+ */
+public class FindResultCache {
+    private final int capacity;
+    private final LinkedHashMap<String, CachedResult> entries;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * Creates an empty cache that holds at most the given number of results.
+     *
+     * @param capacity The maximum number of cached queries.
+     */
+    FindResultCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                if (size() > FindResultCache.this.capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result of the query if it is valid for the given version.
+     *
+     * @param query   The find query, folded with Task.foldText.
+     * @param version The current TaskList version.
+     * @return The cached result, or null if there is none.
+     */
+    List<Task> get(String query, long version) {
+        CachedResult entry = entries.get(query);
+        if (entry == null || entry.version != version) {
+            if (entry != null) {
+                entries.remove(query);
+            }
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.result;
+    }
+
+    /**
+     * Caches the result of the query for the given version.
+     *
+     * @param query   The find query, folded with Task.foldText.
+     * @param result  The tasks found by the query.
+     * @param version The TaskList version the result was computed at.
+     * @return An unmodifiable view of the cached result.
+     */
+    List<Task> put(String query, List<Task> result, long version) {
+        List<Task> cachedResult = Collections.unmodifiableList(result);
+        entries.put(query, new CachedResult(cachedResult, version));
+        return cachedResult;
+    }
+
+    /**
+     * Drops the results that could contain the given task and marks the
+     * other results as still valid for the new version.
+     *
+     * @param task       The task that has been added or removed.
+     * @param newVersion The TaskList version after the change.
+     */
+    void invalidate(Task task, long newVersion) {
+        Iterator<Map.Entry<String, CachedResult>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedResult> mapEntry = iterator.next();
+            if (task.isAssociatedWithFolded(mapEntry.getKey())) {
+                iterator.remove();
+                invalidationCount++;
+            } else {
+                mapEntry.getValue().version = newVersion;
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result, for changes such as sorting that can
+     * affect all of them.
+     */
+    void clear() {
+        invalidationCount += entries.size();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FindResultCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, invalidations=%d]",
+                entries.size(), capacity, hitCount, missCount, evictionCount, invalidationCount);
+    }
+
+    private static class CachedResult {
+        private final List<Task> result;
+        private long version;
+
+        CachedResult(List<Task> result, long version) {
+            this.result = result;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package task;
+
+import java.util.Arrays;
+
+/**
+ * An ordering of tasks by one or more sort categories, each with its own
+ * direction. Tasks are compared by the first category, then by the next one
+ * where they tie, and so on.
+ */
+public class SortOrder {
+    public static final String REVERSED_SUFFIX = ":r";
+    private static final String[] CATEGORY_NAMES = {"name", "deadline", "type", "status"};
+
+    private final int[] categories;
+    private final boolean[] isReversed;
+
+    /**
+     * Creates an ordering by the given categories.
+     *
+     * @param categories The sort categories in Task, most significant first.
+     * @param isReversed Whether each category is sorted in descending order.
+     */
+    public SortOrder(int[] categories, boolean[] isReversed) {
+        assert categories.length > 0 && categories.length == isReversed.length
+                : "Every sort category needs a direction.";
+        this.categories = categories.clone();
+        this.isReversed = isReversed.clone();
+    }
+
+    /**
+     * Returns the sort category with the given name.
+     *
+     * @param name The name of the category, such as "deadline".
+     * @return The sort category in Task, or -1 if there is no such category.
+     */
+    public static int getCategory(String name) {
+        return Arrays.asList(CATEGORY_NAMES).indexOf(name);
+    }
+
+    /**
+     * Returns the sort category whose name is the given part of the text,
+     * without cutting the part out of the text.
+     *
+     * @param text  The text holding the name.
+     * @param start The offset of the first character of the name.
+     * @param end   The offset just after the last character of the name.
+     * @return The sort category in Task, or -1 if there is no such category.
+     */
+    public static int getCategory(String text, int start, int end) {
+        for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+            String name = CATEGORY_NAMES[i];
+            if (end - start == name.length() && text.regionMatches(start, name, 0, name.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads an ordering in the format returned by toString.
+     *
+     * @param string The ordering, such as "status deadline name:r".
+     * @return The SortOrder, or null if the string is not a valid ordering.
+     */
+    public static SortOrder fromString(String string) {
+        String[] words = string.trim().split(" ");
+        int[] categories = new int[words.length];
+        boolean[] isReversed = new boolean[words.length];
+        for (int i = 0; i < words.length; i++) {
+            isReversed[i] = words[i].endsWith(REVERSED_SUFFIX);
+            String name = isReversed[i]
+                    ? words[i].substring(0, words[i].length() - REVERSED_SUFFIX.length())
+                    : words[i];
+            categories[i] = getCategory(name);
+            if (categories[i] < 0) {
+                return null;
+            }
+        }
+        return new SortOrder(categories, isReversed);
+    }
+
+    /**
+     * Checks whether the ordering sorts by the given category.
+     *
+     * @param sortCategory One of the sort categories in Task.
+     * @return True if the category is part of the ordering, false otherwise.
+     */
+    public boolean contains(int sortCategory) {
+        for (int category : categories) {
+            if (category == sortCategory) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return categories.length;
+    }
+
+    public int getCategory(int idx) {
+        return categories[idx];
+    }
+
+    public boolean isReversed(int idx) {
+        return isReversed[idx];
+    }
+
+    /**
+     * Returns the ordering in the format accepted by the "sort" command,
+     * such as "status deadline name:r".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < categories.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(CATEGORY_NAMES[categories[i]]);
+            if (isReversed[i]) {
+                sb.append(REVERSED_SUFFIX);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SortOrder)) {
+            return false;
+        }
+        SortOrder other = (SortOrder) obj;
+        return Arrays.equals(categories, other.categories) && Arrays.equals(isReversed, other.isReversed);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(categories) + Arrays.hashCode(isReversed);
+    }
+}
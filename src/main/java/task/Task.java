@@ -1,32 +1,68 @@
 package task;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-
-public abstract class Task {
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * A task in the TaskList. A task is not changed once it is in the list:
+ * marking it as done or not done replaces it with a changed copy, so that
+ * snapshots and results that hold on to it stay as they were.
+ */
+public abstract class Task implements Cloneable {
     public static final int NOT_DONE = 0;
     public static final int DONE = 1;
     public static final int NAME_CATEGORY = 0;
     public static final int DEADLINE_CATEGORY = 1;
     public static final int TYPE_CATEGORY = 2;
     public static final int STATUS_CATEGORY = 3;
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
     private static final String TICK_SYMBOL = "\u2713"; // "✓"
     private static final String CROSS_SYMBOL = "\u2718"; // "✘"
-    private static final String DATE_FORMATTER_PATTERN = "dd/MM/yyyy HHmm";
+    private static final String STORAGE_SEPARATOR_REGEX = "\\s*\\|\\s*";
 
     private String name;
     private int status;
+    /**
+     * The name and additional info in folded form, computed once so that
+     * case-insensitive finds and sorts do not fold them again.
+     */
+    private final String foldedName;
+    private final String foldedAdditionalInfo;
+    /**
+     * The date in the additional info as minutes since the epoch, read once
+     * so that sorting and the upcoming list compare plain numbers.
+     */
+    private final long deadlineMinutes;
 
     /**
      * Represents a single Task object in TaskList. Newly created Tasks are
      * set to NOT_DONE by default.
      *
-     * @param name The name of the Task.
+     * @param name           The name of the Task.
+     * @param additionalInfo The additional info of the Task, empty if it has none.
      */
-    Task(String name) {
+    Task(String name, String additionalInfo) {
         this.name = name;
         this.status = NOT_DONE;
+        this.foldedName = foldText(name);
+        this.foldedAdditionalInfo = foldText(additionalInfo);
+        long parsedMinutes = TaskDateTime.parseEpochMinutes(additionalInfo);
+        this.deadlineMinutes = parsedMinutes == TaskDateTime.NOT_A_DATE ? NO_DEADLINE : parsedMinutes;
+    }
+
+    /**
+     * Returns the text in the form used for case-insensitive matching and
+     * ordering. The text is NFKC-normalised, so that compatibility forms such
+     * as full-width letters match their plain forms, and then case-folded.
+     *
+     * @param text The text to be folded.
+     * @return The folded text.
+     */
+    public static String foldText(String text) {
+        String normalizedText = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        // Upper-casing first folds characters such as "\u00df" to "ss".
+        return normalizedText.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -55,6 +91,46 @@ public abstract class Task {
 
     public abstract String getStorageStringFormat();
 
+    /**
+     * Creates a task from its storage format, such as "D | 1 | name | 20/08/2019 2100".
+     *
+     * @param storageString The task as returned by getStorageStringFormat.
+     * @return The task, which is not in the TaskList yet.
+     */
+    public static Task fromStorageString(String storageString) {
+        String[] taskInfo = storageString.split(STORAGE_SEPARATOR_REGEX);
+        Task task;
+        switch (taskInfo[0]) {
+        case "D":
+            task = new Deadline(taskInfo[2], taskInfo[3]);
+            break;
+        case "E":
+            task = new Event(taskInfo[2], taskInfo[3]);
+            break;
+        default:
+            task = new Todo(taskInfo[2]);
+            break;
+        }
+        if (taskInfo[1].equals(DONE + "")) {
+            task.setDone();
+        }
+        return task;
+    }
+
+    /**
+     * Returns a copy of the task, for changing its status without changing
+     * the task itself.
+     *
+     * @return The copy.
+     */
+    Task copy() {
+        try {
+            return (Task) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     protected void setDone() {
         this.status = DONE;
     }
@@ -79,21 +155,50 @@ public abstract class Task {
         }
     }
 
+    String getFoldedName() {
+        return foldedName;
+    }
+
+    /**
+     * Checks whether the task name or additional info contains the keyword,
+     * ignoring case.
+     *
+     * @param keyword The word or phrase to be searched for.
+     * @return True if the task is associated with the keyword, false otherwise.
+     */
     public boolean isAssociated(String keyword) {
-        return name.contains(keyword)
-                || getAdditionalInfo().contains(keyword);
+        return isAssociatedWithFolded(foldText(keyword));
     }
 
-    public Calendar getDeadlineFromAdditionalInfo() {
-        SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMATTER_PATTERN);
-        sdf.setLenient(false);
-        Calendar cal = Calendar.getInstance();
-        try {
-            cal.setTime(sdf.parse(getAdditionalInfo()));
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return cal;
+    /**
+     * Checks whether the task is associated with a keyword that has already
+     * been folded with foldText.
+     *
+     * @param foldedKeyword The folded word or phrase to be searched for.
+     * @return True if the task is associated with the keyword, false otherwise.
+     */
+    boolean isAssociatedWithFolded(String foldedKeyword) {
+        return foldedName.contains(foldedKeyword)
+                || foldedAdditionalInfo.contains(foldedKeyword);
+    }
+
+    /**
+     * Returns the date in the additional info.
+     *
+     * @return The date and time, or null if the additional info is not a date.
+     */
+    public LocalDateTime getDeadline() {
+        return deadlineMinutes == NO_DEADLINE ? null : TaskDateTime.toLocalDateTime(deadlineMinutes);
+    }
+
+    /**
+     * Returns the date in the additional info as minutes since the epoch,
+     * see TaskDateTime.
+     *
+     * @return The deadline, or NO_DEADLINE if the additional info is not a date.
+     */
+    long getDeadlineMinutes() {
+        return deadlineMinutes;
     }
 
     @Override
@@ -0,0 +1,105 @@
+package task;
+
+/**
+ * A change to the TaskList, as published to the subscribers of
+ * TaskList.getChangePublisher. Tasks never change once they are in the
+ * list, so an event can be read on any thread.
+ */
+public class TaskChangeEvent {
+    /**
+     * The kinds of change.
+     */
+    public enum Kind {
+        /**
+         * A task has been added at the index.
+         */
+        ADDED,
+        /**
+         * The task at the index has been removed.
+         */
+        REMOVED,
+        /**
+         * The task at the previous index has been replaced by a copy with
+         * another status, which is now at the index.
+         */
+        STATUS_CHANGED,
+        /**
+         * The list has been sorted or cleared, so any of it may have changed.
+         * The whole list after the change is in getSnapshot.
+         */
+        REORDERED
+    }
+
+    private final Kind kind;
+    private final Task task;
+    private final Task oldTask;
+    private final int idx;
+    private final int previousIdx;
+    private final long version;
+    private final TaskSnapshot snapshot;
+
+    TaskChangeEvent(Kind kind, Task task, Task oldTask, int idx, int previousIdx, long version,
+            TaskSnapshot snapshot) {
+        this.kind = kind;
+        this.task = task;
+        this.oldTask = oldTask;
+        this.idx = idx;
+        this.previousIdx = previousIdx;
+        this.version = version;
+        this.snapshot = snapshot;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the task that has been added or removed, or the new copy of a
+     * task whose status has changed. It is null for REORDERED.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the task that has been replaced, for STATUS_CHANGED only.
+     */
+    public Task getOldTask() {
+        return oldTask;
+    }
+
+    /**
+     * Returns the index of the task after the change, or the index it had
+     * if it has been removed. It is -1 for REORDERED.
+     */
+    public int getIndex() {
+        return idx;
+    }
+
+    /**
+     * Returns the index of the task before the change. It only differs from
+     * getIndex when a status change moved the task in a sorted list.
+     */
+    public int getPreviousIndex() {
+        return previousIdx;
+    }
+
+    /**
+     * Returns the TaskList version right after the change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the whole list right after the change, for REORDERED only.
+     */
+    public TaskSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TaskChangeEvent[%s, idx=%d, version=%d, %s]", kind, idx, version, task);
+    }
+}
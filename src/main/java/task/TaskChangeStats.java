@@ -0,0 +1,26 @@
+package task;
+
+/**
+ * Counts the changes to the TaskList by kind, for the log. The TaskList
+ * counts each change itself as it makes it, whether or not anyone
+ * subscribes to its changes, so counting costs no event and never waits.
+ */
+public class TaskChangeStats {
+    private final long[] counts = new long[TaskChangeEvent.Kind.values().length];
+    private long lastVersion;
+
+    void record(TaskChangeEvent.Kind kind, long version) {
+        counts[kind.ordinal()]++;
+        lastVersion = version;
+    }
+
+    public long getCount(TaskChangeEvent.Kind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TaskChangeStats[added=%d, removed=%d, statusChanged=%d, reordered=%d, lastVersion=%d]",
+                counts[0], counts[1], counts[2], counts[3], lastVersion);
+    }
+}
@@ -2,11 +2,64 @@ package task;
 
 import java.util.Comparator;
 
+/**
+ * Creates comparators that compare two tasks in full by a sort category.
+ * TaskList.sort orders tasks by packed keys in TaskSorter instead, which
+ * only falls back to these comparators when two packed keys tie.
+ */
 class TaskComparatorFactory {
 
-     static Comparator<Task> getNameComparator(boolean isReversed) {
+    /**
+     * Returns a comparator for the whole sort order. The comparators of the
+     * categories are tried in turn until one of them tells the tasks apart.
+     *
+     * @param sortOrder The sort order to compare by.
+     * @return The comparator for the sort order.
+     */
+    static Comparator<Task> getComparator(SortOrder sortOrder) {
+        Comparator<Task>[] comparators = getComparators(sortOrder);
         return (t1, t2) -> {
-            int output = t1.getName().compareToIgnoreCase(t2.getName());
+            for (Comparator<Task> comparator : comparators) {
+                int output = comparator.compare(t1, t2);
+                if (output != 0) {
+                    return output;
+                }
+            }
+            return 0;
+        };
+    }
+
+    static Comparator<Task> getComparator(int sortCategory, boolean isReversed) {
+        switch (sortCategory) {
+        case Task.NAME_CATEGORY:
+            return getNameComparator(isReversed);
+
+        case Task.DEADLINE_CATEGORY:
+            return getDeadlineComparator(isReversed);
+
+        case Task.TYPE_CATEGORY:
+            return getTypeComparator(isReversed);
+
+        case Task.STATUS_CATEGORY:
+            return getStatusComparator(isReversed);
+
+        default:
+            throw new IllegalArgumentException("Unknown sort category " + sortCategory);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Task>[] getComparators(SortOrder sortOrder) {
+        Comparator<Task>[] comparators = new Comparator[sortOrder.size()];
+        for (int i = 0; i < comparators.length; i++) {
+            comparators[i] = getComparator(sortOrder.getCategory(i), sortOrder.isReversed(i));
+        }
+        return comparators;
+    }
+
+    static Comparator<Task> getNameComparator(boolean isReversed) {
+        return (t1, t2) -> {
+            int output = t1.getFoldedName().compareTo(t2.getFoldedName());
             return isReversed ? -output : output;
         };
     }
@@ -17,11 +70,11 @@ class TaskComparatorFactory {
             if (t1 instanceof Todo && t2 instanceof Todo) {
                 output = 0;
             } else if (t1 instanceof Todo) {
-                output = Integer.MAX_VALUE;
+                output = 1;
             } else if (t2 instanceof Todo) {
-                output = Integer.MIN_VALUE;
+                output = -1;
             } else {
-                output = t1.getDeadlineFromAdditionalInfo().compareTo(t2.getDeadlineFromAdditionalInfo());
+                output = Long.compare(t1.getDeadlineMinutes(), t2.getDeadlineMinutes());
             }
             return isReversed ? -output : output;
         };
@@ -0,0 +1,104 @@
+package task;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A cursor over a snapshot of tasks that hands them out one page at a time.
+ * The snapshot is taken when the cursor is opened, so later changes to the
+ * TaskList do not shift the pages of an open cursor.
+ */
+public class TaskCursor {
+    private final Task[] snapshot;
+    private final int pageSize;
+    private int pageNumber;
+
+    /**
+     * Opens a cursor over a copy of the given tasks, positioned before the
+     * first page.
+     *
+     * @param tasks    The tasks to be paged through.
+     * @param pageSize The maximum number of tasks on each page.
+     */
+    TaskCursor(List<Task> tasks, int pageSize) {
+        this(tasks.toArray(new Task[0]), pageSize);
+    }
+
+    /**
+     * Opens a cursor over the given array of tasks without copying it, for
+     * an array that never changes, such as the one in a TaskSnapshot.
+     *
+     * @param snapshot The tasks to be paged through.
+     * @param pageSize The maximum number of tasks on each page.
+     */
+    TaskCursor(Task[] snapshot, int pageSize) {
+        assert pageSize > 0 : "Page size must be positive.";
+        this.snapshot = snapshot;
+        this.pageSize = pageSize;
+        this.pageNumber = 0;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public int getPageCount() {
+        return Math.max(1, (snapshot.length + pageSize - 1) / pageSize);
+    }
+
+    public int getTotalSize() {
+        return snapshot.length;
+    }
+
+    /**
+     * Returns the index in the snapshot of the first task on the current page.
+     *
+     * @return The offset of the current page.
+     */
+    public int getOffset() {
+        return (pageNumber - 1) * pageSize;
+    }
+
+    public boolean hasNext() {
+        return pageNumber < getPageCount();
+    }
+
+    public boolean hasPrevious() {
+        return pageNumber > 1;
+    }
+
+    /**
+     * Moves the cursor to the given page and returns the tasks on it.
+     *
+     * @param pageNumber The page to move to, starting from 1.
+     * @return The tasks on that page.
+     * @throws IndexOutOfBoundsException If there is no such page.
+     */
+    public List<Task> page(int pageNumber) {
+        if (pageNumber < 1 || pageNumber > getPageCount()) {
+            throw new IndexOutOfBoundsException("Page " + pageNumber + " out of " + getPageCount());
+        }
+        this.pageNumber = pageNumber;
+        return currentPage();
+    }
+
+    public List<Task> next() {
+        return page(pageNumber + 1);
+    }
+
+    public List<Task> previous() {
+        return page(pageNumber - 1);
+    }
+
+    /**
+     * Returns the tasks on the current page as a view of the snapshot.
+     *
+     * @return The tasks on the current page.
+     */
+    public List<Task> currentPage() {
+        int from = getOffset();
+        int to = Math.min(from + pageSize, snapshot.length);
+        return Collections.unmodifiableList(Arrays.asList(snapshot).subList(from, to));
+    }
+}
@@ -0,0 +1,159 @@
+package task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reads and writes the dates of deadlines and events, which are in the
+ * format "dd/MM/yyyy HHmm". A date is held as the number of minutes from
+ * 01/01/1970 0000 to its local date and time, so dates can be validated and
+ * compared without creating any objects. Input in the usual fixed-width
+ * layout is read by hand. Only a year with a sign, such as "+10000", falls
+ * back to the shared formatter, and any other text, such as the venue of an
+ * event, is rejected without it.
+ */
+public class TaskDateTime {
+    public static final String PATTERN = "dd/MM/yyyy HHmm";
+    /**
+     * Returned by parseEpochMinutes when the text is not a valid date.
+     */
+    public static final long NOT_A_DATE = Long.MIN_VALUE;
+    /**
+     * Immutable and thread-safe, so one instance is shared by every caller.
+     * "uuuu" is the proleptic year, which STRICT resolving needs in place of
+     * "yyyy" to reject dates such as 31/02.
+     */
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/uuuu HHmm")
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final int LENGTH = PATTERN.length();
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int DAYS_PER_400_YEARS = 146_097;
+    /**
+     * The number of days from 01/03/0000 to 01/01/1970.
+     */
+    private static final int DAYS_FROM_YEAR_ZERO_TO_EPOCH = 719_468;
+
+    private TaskDateTime() {
+    }
+
+    /**
+     * Checks whether the text is a valid date in the format "dd/MM/yyyy HHmm".
+     *
+     * @param text The text to be checked.
+     * @return True if the text is a valid date, false otherwise.
+     */
+    public static boolean isValid(String text) {
+        return parseEpochMinutes(text) != NOT_A_DATE;
+    }
+
+    /**
+     * Reads a date in the format "dd/MM/yyyy HHmm".
+     *
+     * @param text The date to be read.
+     * @return The minutes from 01/01/1970 0000 to the date, or NOT_A_DATE if
+     * the text is not a valid date.
+     */
+    public static long parseEpochMinutes(String text) {
+        if (text.length() == LENGTH && text.charAt(2) == '/' && text.charAt(5) == '/' && text.charAt(10) == ' ') {
+            int day = readDigits(text, 0, 2);
+            int month = readDigits(text, 3, 5);
+            int year = readDigits(text, 6, 10);
+            int hour = readDigits(text, 11, 13);
+            int minute = readDigits(text, 13, 15);
+            if (year < 0 || day < 1 || month < 1 || month > 12 || day > lengthOfMonth(year, month)
+                    || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+                return NOT_A_DATE;
+            }
+            return toEpochDay(year, month, day) * MINUTES_PER_DAY + hour * 60 + minute;
+        }
+
+        if (!hasSignedYear(text)) {
+            // The formatter cannot read it either, and would throw to say so.
+            return NOT_A_DATE;
+        }
+        try {
+            LocalDateTime dateTime = LocalDateTime.parse(text, FORMATTER);
+            return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+        } catch (DateTimeParseException e) {
+            return NOT_A_DATE;
+        }
+    }
+
+    /**
+     * Converts minutes from 01/01/1970 0000 back to a date and time.
+     *
+     * @param epochMinutes The minutes returned by parseEpochMinutes.
+     * @return The date and time.
+     */
+    public static LocalDateTime toLocalDateTime(long epochMinutes) {
+        return LocalDateTime.of(1970, 1, 1, 0, 0).plus(epochMinutes, ChronoUnit.MINUTES);
+    }
+
+    /**
+     * Writes minutes from 01/01/1970 0000 in the format "dd/MM/yyyy HHmm".
+     *
+     * @param epochMinutes The minutes returned by parseEpochMinutes.
+     * @return The formatted date.
+     */
+    public static String format(long epochMinutes) {
+        return FORMATTER.format(toLocalDateTime(epochMinutes));
+    }
+
+    /**
+     * Checks whether the text could be a date whose year is outside 0 to
+     * 9999, which the formatter writes with a sign.
+     */
+    private static boolean hasSignedYear(String text) {
+        return text.length() > LENGTH && text.charAt(2) == '/' && text.charAt(5) == '/'
+                && (text.charAt(6) == '+' || text.charAt(6) == '-');
+    }
+
+    /**
+     * Reads the digits between start and end as a number.
+     *
+     * @return The number, or -1 if a character is not a digit.
+     */
+    private static int readDigits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return isLeapYear ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Counts the days from 01/01/1970 to the date. Years are counted from
+     * March so that the leap day falls at the end of the year.
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        int marchYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(marchYear, 400);
+        int yearOfEra = marchYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_FROM_YEAR_ZERO_TO_EPOCH;
+    }
+}
@@ -0,0 +1,560 @@
+package task;
+
+import exception.InvalidArgumentException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bounded log of the changes made to the TaskList, for undo and redo.
+ * Each change is kept as a compact record of its kind, the position of the
+ * task and the task in its storage format, so the log never holds on to
+ * Task objects. The records are kept in a ring buffer: when the log holds
+ * more records than its capacity, or their estimated size exceeds its byte
+ * budget, the oldest records are dropped.
+ *
+ * <p>Before a record is applied, the task at its position is checked
+ * against the storage format in the record. If the list has been reordered
+ * since, for example by a sort, the task is looked up by its storage format
+ * instead.
+ *
+ * <p>The changes made between beginGroup and endGroup, such as the changes
+ * of a transaction, are undone and redone as one. Records are dropped a
+ * whole group at a time, and the most recent group or record is always
+ * kept, however large it is.
+ */
+public class TaskHistory {
+    /**
+     * The number of records kept when no other capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /**
+     * The estimated size of the records kept when no other budget is given.
+     */
+    public static final int DEFAULT_BYTE_BUDGET = 1 << 16;
+    /**
+     * The estimated size of a record without its storage format: the
+     * object header, its fields and the header of the String.
+     */
+    private static final int RECORD_OVERHEAD_BYTES = 48;
+    private static final String SEPARATOR = " | ";
+    private static final String SEPARATOR_REGEX = "\\s*\\|\\s*";
+    private static final String POSITION_TYPE = "P";
+    private static final String JOINED = "1";
+    private static final String NOT_JOINED = "0";
+    /**
+     * The value of groupStart while no group is open, or an open group has
+     * no records yet.
+     */
+    private static final int NO_GROUP = -1;
+
+    /**
+     * The kinds of changes that can be undone.
+     */
+    private enum Kind {
+        ADD, DELETE, DONE
+    }
+
+    /**
+     * What undoing or redoing a record did to a task.
+     */
+    public enum Effect {
+        ADDED, DELETED, MARKED_DONE, MARKED_NOT_DONE
+    }
+
+    private final int capacity;
+    private final int byteBudget;
+    /**
+     * The ring buffer. It only grows past the capacity while an open group
+     * needs more room.
+     */
+    private Record[] records;
+    /**
+     * The index in records of the oldest record.
+     */
+    private int head;
+    private int size;
+    /**
+     * The number of records, counted from the oldest, that are in effect.
+     * The records after them have been undone and can be redone.
+     */
+    private int appliedCount;
+    private long usedBytes;
+    private boolean isGroupOpen;
+    /**
+     * The position, counted from the oldest record, of the first record of
+     * the open group.
+     */
+    private int groupStart = NO_GROUP;
+
+    /**
+     * Creates an empty history with the default capacity and byte budget.
+     */
+    public TaskHistory() {
+        this(DEFAULT_CAPACITY, DEFAULT_BYTE_BUDGET);
+    }
+
+    /**
+     * Creates an empty history.
+     *
+     * @param capacity   The maximum number of records kept.
+     * @param byteBudget The maximum estimated size in bytes of the records kept.
+     */
+    public TaskHistory(int capacity, int byteBudget) {
+        assert capacity > 0 : "History capacity must be positive.";
+        this.capacity = capacity;
+        this.records = new Record[capacity];
+        this.byteBudget = byteBudget;
+    }
+
+    public boolean canUndo() {
+        return appliedCount > 0 && !isGroupOpen;
+    }
+
+    public boolean canRedo() {
+        return appliedCount < size && !isGroupOpen;
+    }
+
+    public boolean isGroupOpen() {
+        return isGroupOpen;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the estimated size in bytes of the records kept.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Forgets every record.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            records[slot(i)] = null;
+        }
+        head = 0;
+        size = 0;
+        appliedCount = 0;
+        usedBytes = 0;
+        isGroupOpen = false;
+        groupStart = NO_GROUP;
+    }
+
+    /**
+     * Starts a group: the changes recorded until endGroup are undone and
+     * redone as one.
+     */
+    public void beginGroup() {
+        assert !isGroupOpen : "Groups cannot be nested.";
+        isGroupOpen = true;
+        groupStart = NO_GROUP;
+    }
+
+    /**
+     * Ends the open group. Older records are dropped if the group took the
+     * history over its capacity or byte budget.
+     */
+    public void endGroup() {
+        assert isGroupOpen : "There is no open group.";
+        isGroupOpen = false;
+        groupStart = NO_GROUP;
+        trim();
+    }
+
+    /**
+     * Reverts the changes of the open group, newest first, and forgets them,
+     * so they cannot be redone. This touches only the TaskList in memory.
+     *
+     * @param taskList The list the changes were made to.
+     * @return What was done to revert each change, newest first.
+     */
+    public List<Change> rollbackGroup(TaskList taskList) {
+        assert isGroupOpen : "There is no open group.";
+        List<Change> changes = new ArrayList<>();
+        if (groupStart != NO_GROUP) {
+            while (appliedCount > groupStart) {
+                changes.add(revert(taskList, records[slot(appliedCount - 1)]));
+                appliedCount--;
+            }
+            while (size > appliedCount) {
+                removeNewest();
+            }
+        }
+        isGroupOpen = false;
+        groupStart = NO_GROUP;
+        return changes;
+    }
+
+    /**
+     * Returns the number of changes recorded in the open group.
+     */
+    public int getGroupSize() {
+        return groupStart == NO_GROUP ? 0 : size - groupStart;
+    }
+
+    /**
+     * Records that a task has been added. Any undone records can no longer
+     * be redone.
+     *
+     * @param idx  The index of the task after it was added.
+     * @param task The task that was added.
+     */
+    public void recordAdd(int idx, Task task) {
+        record(Kind.ADD, idx, task);
+    }
+
+    /**
+     * Records that a task has been deleted.
+     *
+     * @param idx  The index the task was deleted from.
+     * @param task The task that was deleted.
+     */
+    public void recordDelete(int idx, Task task) {
+        record(Kind.DELETE, idx, task);
+    }
+
+    /**
+     * Records that a task has been marked as done.
+     *
+     * @param idx  The index of the task after it was marked.
+     * @param task The task that was marked.
+     */
+    public void recordDone(int idx, Task task) {
+        record(Kind.DONE, idx, task);
+    }
+
+    /**
+     * Reverts the most recent change that is in effect, or every change of
+     * the most recent group. If a change of the group cannot be reverted,
+     * those already reverted are applied again, so the list and the history
+     * are left as they were.
+     *
+     * @param taskList The list the change was made to.
+     * @return What was done to revert each change, newest first.
+     * @throws InvalidArgumentException If there is nothing to undo, or the task has since been removed.
+     */
+    public List<Change> undo(TaskList taskList) {
+        if (!canUndo()) {
+            throw new InvalidArgumentException("There is no earlier action to undo.");
+        }
+        List<Change> changes = new ArrayList<>();
+        int groupEnd = appliedCount;
+        try {
+            do {
+                changes.add(revert(taskList, records[slot(appliedCount - 1)]));
+                appliedCount--;
+            } while (appliedCount > 0 && records[slot(appliedCount)].isJoined);
+        } catch (InvalidArgumentException e) {
+            while (appliedCount < groupEnd) {
+                reapply(taskList, records[slot(appliedCount)]);
+                appliedCount++;
+            }
+            throw e;
+        }
+        return changes;
+    }
+
+    /**
+     * Applies again the earliest change that has been undone, or every
+     * change of the earliest group that has been undone. If a change of the
+     * group cannot be applied, those already applied are reverted again, so
+     * the list and the history are left as they were.
+     *
+     * @param taskList The list the change was made to.
+     * @return What was done to apply each change again, oldest first.
+     * @throws InvalidArgumentException If there is nothing to redo, or the task has since been removed.
+     */
+    public List<Change> redo(TaskList taskList) {
+        if (!canRedo()) {
+            throw new InvalidArgumentException("There is no undone action to redo.");
+        }
+        List<Change> changes = new ArrayList<>();
+        int groupStart = appliedCount;
+        try {
+            do {
+                changes.add(reapply(taskList, records[slot(appliedCount)]));
+                appliedCount++;
+            } while (appliedCount < size && records[slot(appliedCount)].isJoined);
+        } catch (InvalidArgumentException e) {
+            while (appliedCount > groupStart) {
+                appliedCount--;
+                revert(taskList, records[slot(appliedCount)]);
+            }
+            throw e;
+        }
+        return changes;
+    }
+
+    /**
+     * Writes the history, one record per line, after a line that holds how
+     * many of the records are in effect. A record that belongs to the same
+     * group as the record before it is marked as joined.
+     *
+     * @param writer Where the history is written.
+     * @throws IOException If the history cannot be written.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(POSITION_TYPE + SEPARATOR + appliedCount + "\n");
+        for (int i = 0; i < size; i++) {
+            Record record = records[slot(i)];
+            writer.write(record.kind + SEPARATOR + (record.isJoined ? JOINED : NOT_JOINED) + SEPARATOR
+                    + record.idx + SEPARATOR + record.storageString + "\n");
+        }
+    }
+
+    /**
+     * Replaces the history with one written by writeTo. A history that
+     * cannot be read is discarded, leaving the history empty.
+     *
+     * @param reader Where the history is read from.
+     * @throws IOException If the history cannot be read.
+     */
+    public void readFrom(BufferedReader reader) throws IOException {
+        clear();
+        String line = reader.readLine();
+        if (line == null) {
+            return;
+        }
+        try {
+            String[] position = line.split(SEPARATOR_REGEX);
+            if (!position[0].equals(POSITION_TYPE)) {
+                return;
+            }
+            int savedAppliedCount = Integer.parseInt(position[1]);
+            int readCount = 0;
+            while ((line = reader.readLine()) != null) {
+                String[] recordInfo = line.split(SEPARATOR_REGEX, 4);
+                append(new Record(Kind.valueOf(recordInfo[0]), Integer.parseInt(recordInfo[2]), recordInfo[3],
+                        recordInfo[1].equals(JOINED)));
+                readCount++;
+            }
+            // Records dropped to fit the budget are the oldest, which were in effect.
+            int droppedCount = readCount - size;
+            appliedCount = Math.max(0, Math.min(savedAppliedCount - droppedCount, size));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            clear();
+        }
+    }
+
+    private Change revert(TaskList taskList, Record record) {
+        switch (record.kind) {
+        case ADD:
+            return delete(taskList, record);
+        case DELETE:
+            return insert(taskList, record);
+        default:
+            return markAsNotDone(taskList, record);
+        }
+    }
+
+    private Change reapply(TaskList taskList, Record record) {
+        switch (record.kind) {
+        case ADD:
+            return insert(taskList, record);
+        case DELETE:
+            return delete(taskList, record);
+        default:
+            return markAsDone(taskList, record);
+        }
+    }
+
+    private Change insert(TaskList taskList, Record record) {
+        Task task = Task.fromStorageString(record.storageString);
+        int idx = Math.min(record.idx, taskList.size());
+        taskList.insertTask(task, idx);
+        record.idx = idx;
+        return new Change(Effect.ADDED, task, taskList.size());
+    }
+
+    private Change delete(TaskList taskList, Record record) {
+        int idx = locate(taskList, record);
+        record.idx = idx;
+        return new Change(Effect.DELETED, taskList.deleteTask(idx), taskList.size());
+    }
+
+    private Change markAsNotDone(TaskList taskList, Record record) {
+        int idx = taskList.markAsNotDone(locate(taskList, record));
+        Task task = taskList.get(idx);
+        record.idx = idx;
+        record.storageString = task.getStorageStringFormat();
+        return new Change(Effect.MARKED_NOT_DONE, task, taskList.size());
+    }
+
+    private Change markAsDone(TaskList taskList, Record record) {
+        int idx = taskList.markAsDone(locate(taskList, record));
+        Task task = taskList.get(idx);
+        record.idx = idx;
+        record.storageString = task.getStorageStringFormat();
+        return new Change(Effect.MARKED_DONE, task, taskList.size());
+    }
+
+    /**
+     * Finds the task a record refers to, first at the recorded index and
+     * then anywhere in the list.
+     */
+    private int locate(TaskList taskList, Record record) {
+        if (record.idx < taskList.size()
+                && taskList.get(record.idx).getStorageStringFormat().equals(record.storageString)) {
+            return record.idx;
+        }
+        for (int i = 0; i < taskList.size(); i++) {
+            if (taskList.get(i).getStorageStringFormat().equals(record.storageString)) {
+                return i;
+            }
+        }
+        throw new InvalidArgumentException("The task has been changed since, so the action cannot be reverted.");
+    }
+
+    private void record(Kind kind, int idx, Task task) {
+        boolean isJoined = isGroupOpen && groupStart != NO_GROUP;
+        append(new Record(kind, idx, task.getStorageStringFormat(), isJoined));
+        if (isGroupOpen && !isJoined) {
+            groupStart = size - 1;
+        }
+    }
+
+    private void append(Record record) {
+        // Undone records can no longer be redone once something else changes.
+        while (size > appliedCount) {
+            removeNewest();
+        }
+        if (size == records.length) {
+            if (canRemoveOldest()) {
+                removeOldestGroup();
+            } else {
+                grow();
+            }
+        }
+        records[slot(size)] = record;
+        size++;
+        appliedCount++;
+        usedBytes += record.getEstimatedBytes();
+        trim();
+    }
+
+    private void trim() {
+        while ((usedBytes > byteBudget || size > capacity) && canRemoveOldest()) {
+            removeOldestGroup();
+        }
+    }
+
+    /**
+     * Checks whether the oldest group can be dropped: it must be neither
+     * the open group nor the most recent one.
+     */
+    private boolean canRemoveOldest() {
+        if (groupStart != NO_GROUP) {
+            return groupStart > 0;
+        }
+        return size > 0 && getGroupLength(0) < size;
+    }
+
+    /**
+     * Returns the number of records in the group that starts at the given
+     * position.
+     */
+    private int getGroupLength(int position) {
+        int length = 1;
+        while (position + length < size && records[slot(position + length)].isJoined) {
+            length++;
+        }
+        return length;
+    }
+
+    private void removeOldestGroup() {
+        int length = getGroupLength(0);
+        for (int i = 0; i < length; i++) {
+            usedBytes -= records[head].getEstimatedBytes();
+            records[head] = null;
+            head = (head + 1) % records.length;
+            size--;
+            appliedCount--;
+        }
+        if (groupStart != NO_GROUP) {
+            groupStart -= length;
+        }
+    }
+
+    private void grow() {
+        Record[] grown = new Record[records.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = records[slot(i)];
+        }
+        records = grown;
+        head = 0;
+    }
+
+    private void removeNewest() {
+        int newest = slot(size - 1);
+        usedBytes -= records[newest].getEstimatedBytes();
+        records[newest] = null;
+        size--;
+    }
+
+    private int slot(int position) {
+        return (head + position) % records.length;
+    }
+
+    /**
+     * One change to the TaskList. Only its kind is fixed: the index and the
+     * storage format follow the task as it is undone and redone.
+     */
+    private static class Record {
+        private final Kind kind;
+        /**
+         * Whether the record belongs to the same group as the record before it.
+         */
+        private final boolean isJoined;
+        private int idx;
+        private String storageString;
+
+        Record(Kind kind, int idx, String storageString, boolean isJoined) {
+            this.kind = kind;
+            this.idx = idx;
+            this.storageString = storageString;
+            this.isJoined = isJoined;
+        }
+
+        long getEstimatedBytes() {
+            return RECORD_OVERHEAD_BYTES + 2L * storageString.length();
+        }
+    }
+
+    /**
+     * The outcome of undoing or redoing a record.
+     */
+    public static class Change {
+        private final Effect effect;
+        private final Task task;
+        private final int taskCount;
+
+        Change(Effect effect, Task task, int taskCount) {
+            this.effect = effect;
+            this.task = task;
+            this.taskCount = taskCount;
+        }
+
+        public Effect getEffect() {
+            return effect;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+
+        /**
+         * Returns the number of tasks in the list right after the change.
+         */
+        public int getTaskCount() {
+            return taskCount;
+        }
+    }
+}
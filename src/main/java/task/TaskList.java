@@ -3,15 +3,45 @@ package task;
 import exception.InvalidArgumentException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
 
 /**
  * A singleton that helps to manage the list of tasks and provides
- * various operations on tasks.
+ * various operations on tasks. Every change is published as a
+ * TaskChangeEvent, see getChangePublisher.
  */
 public class TaskList {
+    /**
+     * The most events held for a subscriber that has not asked for them yet.
+     * A change to the list waits while a subscriber's buffer is full.
+     */
+    public static final int CHANGE_BUFFER_CAPACITY = 1024;
+    private static final int FIND_CACHE_CAPACITY = 64;
     private static List<Task> tasks;
+    private static FindResultCache findCache = new FindResultCache(FIND_CACHE_CAPACITY);
+    /**
+     * Counts the changes to the membership or order of the list. Cached find
+     * results are only served for the version they were computed at.
+     */
+    private static long version;
+    /**
+     * The order the list is kept in after a sort, or null if new tasks are
+     * simply added to the end.
+     */
+    private static SortOrder sortOrder;
+    /**
+     * The last snapshot taken, reused while the version stays the same.
+     */
+    private static TaskSnapshot snapshot;
+    private static final TaskChangeStats changeStats = new TaskChangeStats();
+    private static final SubmissionPublisher<TaskChangeEvent> changePublisher =
+            new SubmissionPublisher<>(ForkJoinPool.commonPool(), CHANGE_BUFFER_CAPACITY);
 
     private TaskList() {
         if (tasks == null) {
@@ -37,8 +67,70 @@ public class TaskList {
         return tasks;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public FindResultCache getFindCache() {
+        return findCache;
+    }
+
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * Returns the publisher of the changes to the list. Each subscriber has
+     * its own bounded buffer and receives the events in order on a thread of
+     * the common pool, as fast as it requests them. Events are only created
+     * while there are subscribers. A subscriber must not change the list.
+     *
+     * @return The publisher of the changes.
+     */
+    public Flow.Publisher<TaskChangeEvent> getChangePublisher() {
+        return changePublisher;
+    }
+
+    /**
+     * Returns the number of changes of each kind made to the list.
+     */
+    public TaskChangeStats getChangeStats() {
+        return changeStats;
+    }
+
+    /**
+     * Keeps the list in the given order from now on without sorting it, for
+     * a list that is known to be in that order already, such as one loaded
+     * from storage.
+     *
+     * @param sortOrder The order the list is in, or null to stop keeping the list sorted.
+     */
+    public void setSortOrder(SortOrder sortOrder) {
+        TaskList.sortOrder = sortOrder;
+    }
+
+    /**
+     * Returns the index of the given task in the task list.
+     *
+     * @param task The task to look for.
+     * @return The index of the task, or -1 if it is not in the list.
+     */
+    public int indexOf(Task task) {
+        int lastIdx = tasks.size() - 1;
+        if (lastIdx >= 0 && tasks.get(lastIdx) == task) {
+            return lastIdx;
+        }
+        return tasks.indexOf(task);
+    }
+
+    /**
+     * Removes all tasks and stops keeping the list sorted.
+     */
     public void clear() {
         tasks.clear();
+        sortOrder = null;
+        onReordered();
+        publish(TaskChangeEvent.Kind.REORDERED, null, null, -1, -1);
     }
 
     public boolean isEmpty() {
@@ -60,7 +152,7 @@ public class TaskList {
     public Task addNewTodoTask(String taskName, boolean isDone) {
         Task newTask = new Todo(taskName);
         setDoneStatus(newTask, isDone);
-        tasks.add(newTask);
+        addInOrder(newTask);
         return newTask;
     }
 
@@ -77,7 +169,7 @@ public class TaskList {
         assert !additionalInfo.isEmpty() : "Additional info of Event task cannot be empty.";
         Task newTask = new Event(taskName, additionalInfo);
         setDoneStatus(newTask, isDone);
-        tasks.add(newTask);
+        addInOrder(newTask);
         return newTask;
     }
 
@@ -96,7 +188,7 @@ public class TaskList {
         assert !additionalInfo.isEmpty() : "Additional info of Deadline task cannot be empty.";
         Task newTask = new Deadline(taskName, additionalInfo);
         setDoneStatus(newTask, isDone);
-        tasks.add(newTask);
+        addInOrder(newTask);
         return newTask;
     }
 
@@ -108,6 +200,8 @@ public class TaskList {
      */
     public Task deleteTask(int idx) {
         Task task = tasks.remove(idx);
+        onTaskChanged(task);
+        publish(TaskChangeEvent.Kind.REMOVED, task, null, idx, idx);
         return task;
     }
 
@@ -119,77 +213,265 @@ public class TaskList {
      */
     public void insertTask(Task task, int idx) {
         tasks.add(idx, task);
+        onTaskChanged(task);
+        publish(TaskChangeEvent.Kind.ADDED, task, null, idx, idx);
     }
 
     /**
-     * Marks a task from task list as done.
+     * Marks a task from task list as done by replacing it with a done copy.
+     * If the list is kept sorted by status, the task is moved to its new
+     * position.
      *
      * @param idx The index of the task in task list.
+     * @return The index of the task after it has been marked.
      */
-    public void markAsDone(int idx) throws InvalidArgumentException {
+    public int markAsDone(int idx) throws InvalidArgumentException {
         if (tasks.get(idx).getStatus() == Task.DONE) {
             throw new InvalidArgumentException(
                     String.format("Task %d is already done.", idx + 1));
         }
-        tasks.get(idx).setDone();
+        Task doneTask = tasks.get(idx).copy();
+        doneTask.setDone();
+        return replaceTask(idx, doneTask);
     }
 
     /**
-     * Marks a task from task list as not done.
+     * Marks a task from task list as not done by replacing it with a copy
+     * that is not done. If the list is kept sorted by status, the task is
+     * moved to its new position.
      *
      * @param idx The index of the task in task list.
+     * @return The index of the task after it has been marked.
      */
-    public void markAsNotDone(int idx) {
+    public int markAsNotDone(int idx) {
         if (tasks.get(idx).getStatus() == Task.NOT_DONE) {
             throw new InvalidArgumentException(
                     String.format("Task %d is already not done.", idx + 1));
         }
-        tasks.get(idx).setNotDone();
+        Task notDoneTask = tasks.get(idx).copy();
+        notDoneTask.setNotDone();
+        return replaceTask(idx, notDoneTask);
     }
 
     /**
-     * Finds all tasks whose task name or additional info contains the keyword.
+     * Returns an immutable snapshot of the list as it is now, for reading
+     * on other threads. It must be called on the thread that changes the
+     * list.
+     *
+     * @return The snapshot.
+     */
+    public TaskSnapshot snapshot() {
+        if (snapshot == null || snapshot.getVersion() != version) {
+            snapshot = new TaskSnapshot(tasks, version);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Finds all tasks whose task name or additional info contains the keyword,
+     * ignoring case. Large lists are scanned in parallel, see TaskScanner.
      *
      * @param keyword The word or phrase to be searched for.
-     * @return The list of tasks that are associated with the keyword.
+     * @return The list of tasks that are associated with the keyword, in list order.
      */
     public List<Task> generateListByKeyword(String keyword) {
         assert !keyword.isEmpty() : "Find keyword cannot be empty";
-        List<Task> findResult = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task.isAssociated(keyword)) {
-                findResult.add(task);
-            }
+        String query = Task.foldText(keyword);
+        List<Task> findResult = findCache.get(query, version);
+        if (findResult == null) {
+            findResult = TaskScanner.scan(tasks, task -> task.isAssociatedWithFolded(query));
+            findResult = findCache.put(query, findResult, version);
         }
         return findResult;
     }
 
+    /**
+     * Finds the not done Deadline and Event tasks with the earliest deadlines
+     * without reordering the list. A max-heap holds the count earliest tasks
+     * seen so far, so this takes O(n log count) time.
+     *
+     * @param count The maximum number of tasks to be returned.
+     * @return The earliest tasks, ordered by deadline and then by list position.
+     */
+    public List<Task> generateUpcomingList(int count) {
+        assert count > 0 : "Number of upcoming tasks must be positive";
+        PriorityQueue<UpcomingTask> latestFirst = new PriorityQueue<>(
+                Math.min(count, tasks.size()) + 1, Collections.reverseOrder());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            long deadlineMinutes = task.getDeadlineMinutes();
+            if (task.getStatus() == Task.DONE || deadlineMinutes == Task.NO_DEADLINE) {
+                continue;
+            }
+            // A later task with the same deadline never displaces an earlier one.
+            if (latestFirst.size() < count) {
+                latestFirst.offer(new UpcomingTask(task, deadlineMinutes, i));
+            } else if (deadlineMinutes < latestFirst.peek().deadlineMinutes) {
+                latestFirst.poll();
+                latestFirst.offer(new UpcomingTask(task, deadlineMinutes, i));
+            }
+        }
+
+        Task[] upcomingTasks = new Task[latestFirst.size()];
+        for (int i = upcomingTasks.length - 1; i >= 0; i--) {
+            upcomingTasks[i] = latestFirst.poll().task;
+        }
+        return List.of(upcomingTasks);
+    }
+
+    /**
+     * Opens a cursor over a snapshot of the whole task list.
+     *
+     * @param pageSize The maximum number of tasks on each page.
+     * @return The cursor, positioned before the first page.
+     */
+    public TaskCursor openCursor(int pageSize) {
+        return new TaskCursor(tasks, pageSize);
+    }
+
+    /**
+     * Opens a cursor over a snapshot of the given tasks, such as a find result.
+     *
+     * @param tasks    The tasks to be paged through.
+     * @param pageSize The maximum number of tasks on each page.
+     * @return The cursor, positioned before the first page.
+     */
+    public TaskCursor openCursor(List<Task> tasks, int pageSize) {
+        return new TaskCursor(tasks, pageSize);
+    }
+
+    /**
+     * Sorts the task list by the given category.
+     *
+     * @param sortCategory One of the sort categories in Task.
+     * @param isReversed   Whether to sort in descending order.
+     * @return True if the list is sorted, false if the category is unknown.
+     */
     public boolean sort(int sortCategory, boolean isReversed) {
-        Comparator<Task> comparator;
         switch (sortCategory) {
         case Task.NAME_CATEGORY:
-            comparator = TaskComparatorFactory.getNameComparator(isReversed);
-            break;
-
         case Task.DEADLINE_CATEGORY:
-            comparator = TaskComparatorFactory.getDeadlineComparator(isReversed);
-            break;
-
         case Task.TYPE_CATEGORY:
-            comparator = TaskComparatorFactory.getTypeComparator(isReversed);
-            break;
-
         case Task.STATUS_CATEGORY:
-            comparator = TaskComparatorFactory.getStatusComparator(isReversed);
-            break;
+            return sort(new SortOrder(new int[]{sortCategory}, new boolean[]{isReversed}));
 
         default:
             return false;
         }
-        tasks.sort(comparator);
+    }
+
+    /**
+     * Sorts the task list by one or more categories. The keys of all the
+     * categories are packed into one primitive key per task and the keys are
+     * sorted instead of the tasks, see TaskSorter. The list is then kept in
+     * this order as tasks are added or change status.
+     *
+     * @param sortOrder The categories and directions to sort by.
+     * @return True once the list is sorted.
+     */
+    public boolean sort(SortOrder sortOrder) {
+        TaskSorter.sort(tasks, sortOrder);
+        TaskList.sortOrder = sortOrder;
+        onReordered();
+        publish(TaskChangeEvent.Kind.REORDERED, null, null, -1, -1);
         return true;
     }
 
+    /**
+     * Adds the task to the end of the list, or to its sorted position if the
+     * list is kept sorted. The position is found by binary search and comes
+     * after all tasks that are equal in the sort order, like a stable sort
+     * would place it.
+     *
+     * @param task The task to be added.
+     */
+    private void addInOrder(Task task) {
+        int idx = sortOrder == null ? tasks.size() : findSortedPosition(task);
+        tasks.add(idx, task);
+        onTaskChanged(task);
+        publish(TaskChangeEvent.Kind.ADDED, task, null, idx, idx);
+    }
+
+    private int findSortedPosition(Task task) {
+        Comparator<Task> comparator = TaskComparatorFactory.getComparator(sortOrder);
+        int low = 0;
+        int high = tasks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(tasks.get(mid), task) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Puts a copy of a task with another status in its place, and moves it
+     * if the list is kept sorted by status. Cached find results that hold
+     * the old task are dropped.
+     *
+     * @return The index of the copy.
+     */
+    private int replaceTask(int idx, Task newTask) {
+        Task oldTask = tasks.set(idx, newTask);
+        onTaskChanged(oldTask);
+        int newIdx = repositionAfterStatusChange(idx);
+        publish(TaskChangeEvent.Kind.STATUS_CHANGED, newTask, oldTask, newIdx, idx);
+        return newIdx;
+    }
+
+    /**
+     * Moves a task whose status has changed to its new sorted position, if
+     * the list is kept sorted by status.
+     *
+     * @param idx The index of the task before it is moved.
+     * @return The index of the task after it is moved.
+     */
+    private int repositionAfterStatusChange(int idx) {
+        if (sortOrder == null || !sortOrder.contains(Task.STATUS_CATEGORY)) {
+            return idx;
+        }
+        Task task = tasks.remove(idx);
+        int newIdx = findSortedPosition(task);
+        tasks.add(newIdx, task);
+        onTaskChanged(task);
+        return newIdx;
+    }
+
+    /**
+     * Moves the list to a new version after a task has been added or removed,
+     * dropping only the cached find results the task could appear in.
+     *
+     * @param task The task that has been added or removed.
+     */
+    private void onTaskChanged(Task task) {
+        version++;
+        findCache.invalidate(task, version);
+    }
+
+    /**
+     * Moves the list to a new version after a change that can affect every
+     * find result, such as a sort.
+     */
+    private void onReordered() {
+        version++;
+        findCache.clear();
+    }
+
+    /**
+     * Counts a change and publishes it to the subscribers, if there are
+     * any, waiting if the buffer of one of them is full.
+     */
+    private void publish(TaskChangeEvent.Kind kind, Task task, Task oldTask, int idx, int previousIdx) {
+        changeStats.record(kind, version);
+        if (changePublisher.hasSubscribers()) {
+            TaskSnapshot reorderedList = kind == TaskChangeEvent.Kind.REORDERED ? snapshot() : null;
+            changePublisher.submit(new TaskChangeEvent(kind, task, oldTask, idx, previousIdx, version, reorderedList));
+        }
+    }
+
     /**
      * Marks the status of a given task as done or not depending on the isDone argument.
      *
@@ -205,6 +487,28 @@ public class TaskList {
     }
 
 
+    /**
+     * A task paired with its position in the list, ordered by deadline and
+     * then by position.
+     */
+    private static class UpcomingTask implements Comparable<UpcomingTask> {
+        private final Task task;
+        private final long deadlineMinutes;
+        private final int idx;
+
+        UpcomingTask(Task task, long deadlineMinutes, int idx) {
+            this.task = task;
+            this.deadlineMinutes = deadlineMinutes;
+            this.idx = idx;
+        }
+
+        @Override
+        public int compareTo(UpcomingTask other) {
+            int output = Long.compare(deadlineMinutes, other.deadlineMinutes);
+            return output != 0 ? output : Integer.compare(idx, other.idx);
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         return tasks.equals(((TaskList) obj).getTasks());
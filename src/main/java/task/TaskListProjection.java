@@ -0,0 +1,95 @@
+package task;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a list of rows, such as the items of a table, equal to the
+ * TaskList by applying each change to the rows as it is published, rather
+ * than copying the whole list after every change. An added, removed or
+ * changed task touches only its own row; only a sort or a clear replaces
+ * every row, and then only once per batch however many there were.
+ *
+ * <p>It is fed batches of TaskChangeEvent, and skips the events the rows
+ * already include, so it can be subscribed before it is reset from a
+ * snapshot. It must only be used on one thread at a time.
+ */
+public class TaskListProjection implements Consumer<List<TaskChangeEvent>> {
+    private final List<Task> rows;
+    private final Consumer<List<Task>> rowReplacer;
+    private long version = -1;
+
+    /**
+     * Creates a projection onto the given rows.
+     *
+     * @param rows        The rows to keep equal to the TaskList.
+     * @param rowReplacer Replaces every row at once, such as ObservableList.setAll.
+     */
+    public TaskListProjection(List<Task> rows, Consumer<List<Task>> rowReplacer) {
+        this.rows = rows;
+        this.rowReplacer = rowReplacer;
+    }
+
+    /**
+     * Replaces the rows with the given snapshot. Later events are applied
+     * only if they come after it.
+     *
+     * @param snapshot The tasks to show.
+     */
+    public void reset(TaskSnapshot snapshot) {
+        rowReplacer.accept(snapshot.getTasks());
+        version = snapshot.getVersion();
+    }
+
+    /**
+     * Applies a batch of changes to the rows, in order.
+     *
+     * @param events The changes, as published by the TaskList.
+     */
+    @Override
+    public void accept(List<TaskChangeEvent> events) {
+        int first = 0;
+        // Everything before the last sort or clear is replaced by its snapshot anyway.
+        for (int i = events.size() - 1; i >= 0; i--) {
+            if (events.get(i).getKind() == TaskChangeEvent.Kind.REORDERED) {
+                first = i;
+                break;
+            }
+        }
+        for (TaskChangeEvent event : events.subList(first, events.size())) {
+            if (event.getVersion() > version) {
+                apply(event);
+                version = event.getVersion();
+            }
+        }
+    }
+
+    /**
+     * Returns the TaskList version the rows are up to.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void apply(TaskChangeEvent event) {
+        switch (event.getKind()) {
+        case ADDED:
+            rows.add(event.getIndex(), event.getTask());
+            break;
+        case REMOVED:
+            rows.remove(event.getIndex());
+            break;
+        case STATUS_CHANGED:
+            if (event.getIndex() == event.getPreviousIndex()) {
+                rows.set(event.getIndex(), event.getTask());
+            } else {
+                rows.remove(event.getPreviousIndex());
+                rows.add(event.getIndex(), event.getTask());
+            }
+            break;
+        default:
+            rowReplacer.accept(event.getSnapshot().getTasks());
+            break;
+        }
+    }
+}
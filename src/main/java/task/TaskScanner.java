@@ -0,0 +1,101 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Scans a list of tasks for those matching a filter. Lists at or above
+ * PARALLEL_SCAN_THRESHOLD are split with their Spliterator and scanned on a
+ * ForkJoinPool, smaller lists are scanned sequentially on the calling thread.
+ * Matches are always returned in their original list order.
+ */
+class TaskScanner {
+    /**
+     * The list size from which a scan is split across the fork/join pool.
+     * Below this, the cost of forking outweighs the work saved.
+     */
+    static final int PARALLEL_SCAN_THRESHOLD = 8192;
+    /**
+     * The largest chunk of tasks a single fork/join leaf will scan.
+     */
+    private static final int LEAF_SIZE = 4096;
+
+    private TaskScanner() {
+    }
+
+    /**
+     * Returns all tasks in the list that satisfy the filter, scanning on the
+     * common fork/join pool if the list is large enough.
+     *
+     * @param tasks  The tasks to be scanned.
+     * @param filter The condition a task has to satisfy to be in the result.
+     * @return The matching tasks in their original order.
+     */
+    static List<Task> scan(List<Task> tasks, Predicate<Task> filter) {
+        return scan(tasks, filter, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns all tasks in the list that satisfy the filter, scanning on the
+     * given fork/join pool if the list is large enough.
+     *
+     * @param tasks  The tasks to be scanned.
+     * @param filter The condition a task has to satisfy to be in the result.
+     * @param pool   The pool to run the parallel scan on.
+     * @return The matching tasks in their original order.
+     */
+    static List<Task> scan(List<Task> tasks, Predicate<Task> filter, ForkJoinPool pool) {
+        if (tasks.size() < PARALLEL_SCAN_THRESHOLD || pool.getParallelism() == 1) {
+            List<Task> result = new ArrayList<>();
+            for (Task task : tasks) {
+                if (filter.test(task)) {
+                    result.add(task);
+                }
+            }
+            return result;
+        }
+        return pool.invoke(new ScanTask(tasks.spliterator(), filter));
+    }
+
+    /**
+     * Scans one part of the task list. A part larger than LEAF_SIZE is split
+     * in two; since the spliterator of a list always hands out the prefix,
+     * joining the left result before the right keeps the original order.
+     */
+    private static class ScanTask extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<Task> spliterator;
+        private final Predicate<Task> filter;
+
+        ScanTask(Spliterator<Task> spliterator, Predicate<Task> filter) {
+            this.spliterator = spliterator;
+            this.filter = filter;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            Spliterator<Task> prefix;
+            if (spliterator.estimateSize() > LEAF_SIZE && (prefix = spliterator.trySplit()) != null) {
+                ScanTask left = new ScanTask(prefix, filter);
+                left.fork();
+                List<Task> right = new ScanTask(spliterator, filter).compute();
+                List<Task> result = left.join();
+                result.addAll(right);
+                return result;
+            }
+
+            List<Task> result = new ArrayList<>();
+            spliterator.forEachRemaining(task -> {
+                if (filter.test(task)) {
+                    result.add(task);
+                }
+            });
+            return result;
+        }
+    }
+}
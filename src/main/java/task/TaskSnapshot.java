@@ -0,0 +1,85 @@
+package task;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of the task list at one version, which any number of
+ * threads can read without locks while the list itself keeps changing.
+ * Tasks are never changed once they are in the list, since marking a task
+ * replaces it with a changed copy, so the snapshot only has to copy the
+ * references to them.
+ */
+public class TaskSnapshot {
+    private final Task[] tasks;
+    private final long version;
+
+    /**
+     * Creates a snapshot of the given tasks, which may also come from a list
+     * other than the TaskList, such as the copy a replica keeps.
+     *
+     * @param tasks   The tasks, in list order.
+     * @param version The version of the list the tasks are from.
+     */
+    public TaskSnapshot(List<Task> tasks, long version) {
+        this.tasks = tasks.toArray(new Task[0]);
+        this.version = version;
+    }
+
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(Arrays.asList(tasks));
+    }
+
+    public int size() {
+        return tasks.length;
+    }
+
+    public boolean isEmpty() {
+        return tasks.length == 0;
+    }
+
+    /**
+     * Returns the TaskList version the snapshot was taken at.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Finds all tasks whose task name or additional info contains the
+     * keyword, ignoring case, like TaskList.generateListByKeyword but
+     * without its cache, which only the writing thread may use.
+     *
+     * @param keyword The word or phrase to be searched for.
+     * @return The matching tasks, in list order.
+     */
+    public List<Task> generateListByKeyword(String keyword) {
+        assert !keyword.isEmpty() : "Find keyword cannot be empty";
+        String query = Task.foldText(keyword);
+        return TaskScanner.scan(getTasks(), task -> task.isAssociatedWithFolded(query));
+    }
+
+    /**
+     * Opens a cursor over the whole snapshot, sharing its tasks rather than
+     * copying them.
+     *
+     * @param pageSize The maximum number of tasks on each page.
+     * @return The cursor, positioned before the first page.
+     */
+    public TaskCursor openCursor(int pageSize) {
+        return new TaskCursor(tasks, pageSize);
+    }
+
+    /**
+     * Opens a cursor over some of the tasks in the snapshot, such as a find
+     * result.
+     *
+     * @param tasks    The tasks to be paged through.
+     * @param pageSize The maximum number of tasks on each page.
+     * @return The cursor, positioned before the first page.
+     */
+    public TaskCursor openCursor(List<Task> tasks, int pageSize) {
+        return new TaskCursor(tasks, pageSize);
+    }
+}
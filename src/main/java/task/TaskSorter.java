@@ -0,0 +1,269 @@
+package task;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts tasks by packed primitive sort keys. The keys of all categories in
+ * a sort order are extracted once per task and packed into a single long,
+ * most significant category first, together with the task's position. The
+ * whole sort is then a single Arrays.sort over a long[], whatever the number
+ * of categories, and the positions make every packed key unique, which keeps
+ * the sort stable.
+ *
+ * <p>Status, type and deadline keys have a fixed width and are exact. A name
+ * key takes the bits that are left over and only holds a prefix of the
+ * name, so nothing can be packed after it. When a sort order does not fit
+ * exactly, tasks whose packed keys tie are ordered by the full comparator.
+ *
+ * <p>Lists of PARALLEL_SORT_THRESHOLD tasks or more are sorted with
+ * Arrays.parallelSort. Since no two packed keys are equal, the parallel sort
+ * gives exactly the same order as the sequential one.
+ */
+class TaskSorter {
+    /**
+     * The list size from which sorting is split across the fork/join pool.
+     * Run SortBenchmark with the "parallel" argument to find the crossover
+     * on a given machine.
+     */
+    static final int PARALLEL_SORT_THRESHOLD = 65_536;
+    private static final int STATUS_BITS = 1;
+    private static final int TYPE_BITS = 2;
+    /**
+     * Enough bits to hold the minutes of every date with a 4-digit year.
+     */
+    private static final int DEADLINE_BITS = 34;
+    private static final int BITS_PER_NAME_CHAR = 7;
+    /**
+     * Characters from this one upwards share one code in a name prefix.
+     */
+    private static final char NAME_CHAR_ESCAPE = 0x7f;
+    private static final String TYPE_LETTERS = "DET";
+
+    private TaskSorter() {
+    }
+
+    /**
+     * Sorts the tasks in place by a single category. Like List.sort, the
+     * sort is stable in both directions.
+     *
+     * @param tasks        The tasks to be sorted.
+     * @param sortCategory One of the sort categories in Task.
+     * @param isReversed   Whether to sort in descending order.
+     */
+    static void sort(List<Task> tasks, int sortCategory, boolean isReversed) {
+        sort(tasks, new SortOrder(new int[]{sortCategory}, new boolean[]{isReversed}));
+    }
+
+    /**
+     * Sorts the tasks in place by the given sort order, in parallel if there
+     * are enough of them. Like List.sort, the sort is stable.
+     *
+     * @param tasks     The tasks to be sorted.
+     * @param sortOrder The categories and directions to sort by.
+     */
+    static void sort(List<Task> tasks, SortOrder sortOrder) {
+        sort(tasks, sortOrder, tasks.size() >= PARALLEL_SORT_THRESHOLD);
+    }
+
+    /**
+     * Sorts the tasks in place by the given sort order. Like List.sort, the
+     * sort is stable, and the result does not depend on isParallel.
+     *
+     * @param tasks      The tasks to be sorted.
+     * @param sortOrder  The categories and directions to sort by.
+     * @param isParallel Whether to sort on the common fork/join pool.
+     */
+    static void sort(List<Task> tasks, SortOrder sortOrder, boolean isParallel) {
+        int size = tasks.size();
+        int positionBits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(size));
+        long positionMask = (1L << positionBits) - 1;
+        int[] keyWidths = planKeyWidths(sortOrder, Long.SIZE - 1 - positionBits);
+        int unusedBits = Long.SIZE - 1 - positionBits - Arrays.stream(keyWidths).sum();
+        boolean isExact = isExact(sortOrder, keyWidths);
+
+        long[] packedKeys = new long[size];
+        for (int i = 0; i < size; i++) {
+            Task task = tasks.get(i);
+            long key = 0;
+            for (int k = 0; k < keyWidths.length && keyWidths[k] > 0; k++) {
+                long field = extractKey(task, sortOrder.getCategory(k), keyWidths[k]);
+                if (field < 0) {
+                    // A key that does not fit its field would misorder the fields after it.
+                    sortByComparator(tasks, TaskComparatorFactory.getComparator(sortOrder), isParallel);
+                    return;
+                }
+                long maxField = (1L << keyWidths[k]) - 1;
+                key = key << keyWidths[k] | (sortOrder.isReversed(k) ? maxField - field : field);
+            }
+            packedKeys[i] = (key << unusedBits) << positionBits | i;
+        }
+        if (isParallel) {
+            Arrays.parallelSort(packedKeys);
+        } else {
+            Arrays.sort(packedKeys);
+        }
+
+        Task[] sortedTasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            sortedTasks[i] = tasks.get((int) (packedKeys[i] & positionMask));
+        }
+        if (!isExact) {
+            breakTies(sortedTasks, packedKeys, positionBits, TaskComparatorFactory.getComparator(sortOrder));
+        }
+        for (int i = 0; i < size; i++) {
+            tasks.set(i, sortedTasks[i]);
+        }
+    }
+
+    /**
+     * Sorts the tasks with a comparator, which is only needed for keys that
+     * cannot be packed. Arrays.parallelSort is stable for objects.
+     */
+    private static void sortByComparator(List<Task> tasks, Comparator<Task> comparator, boolean isParallel) {
+        if (!isParallel) {
+            tasks.sort(comparator);
+            return;
+        }
+        Task[] sortedTasks = tasks.toArray(new Task[0]);
+        Arrays.parallelSort(sortedTasks, comparator);
+        for (int i = 0; i < sortedTasks.length; i++) {
+            tasks.set(i, sortedTasks[i]);
+        }
+    }
+
+    /**
+     * Decides how many bits each category of the sort order gets. Categories
+     * are given their fixed width in turn until one does not fit; a name takes
+     * whole characters out of all the remaining bits.
+     *
+     * @return The width of each category, 0 for categories that are not packed.
+     */
+    private static int[] planKeyWidths(SortOrder sortOrder, int availableBits) {
+        int[] keyWidths = new int[sortOrder.size()];
+        for (int k = 0; k < keyWidths.length; k++) {
+            int width;
+            switch (sortOrder.getCategory(k)) {
+            case Task.NAME_CATEGORY:
+                keyWidths[k] = availableBits - availableBits % BITS_PER_NAME_CHAR;
+                return keyWidths;
+
+            case Task.DEADLINE_CATEGORY:
+                width = DEADLINE_BITS;
+                break;
+
+            case Task.TYPE_CATEGORY:
+                width = TYPE_BITS;
+                break;
+
+            case Task.STATUS_CATEGORY:
+                width = STATUS_BITS;
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown sort category " + sortOrder.getCategory(k));
+            }
+            if (width > availableBits) {
+                return keyWidths;
+            }
+            keyWidths[k] = width;
+            availableBits -= width;
+        }
+        return keyWidths;
+    }
+
+    /**
+     * Checks whether the planned keys order tasks exactly, which is when every
+     * category is packed and none of them is a name prefix.
+     */
+    private static boolean isExact(SortOrder sortOrder, int[] keyWidths) {
+        for (int k = 0; k < keyWidths.length; k++) {
+            if (keyWidths[k] == 0 || sortOrder.getCategory(k) == Task.NAME_CATEGORY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the key of the task as a number that fits in the given width,
+     * where a smaller key never belongs to a task that comes later.
+     *
+     * @return The key, or -1 if the key of the task does not fit in the width.
+     */
+    private static long extractKey(Task task, int sortCategory, int width) {
+        switch (sortCategory) {
+        case Task.NAME_CATEGORY:
+            return packNamePrefix(task.getFoldedName(), width / BITS_PER_NAME_CHAR);
+
+        case Task.DEADLINE_CATEGORY:
+            return packDeadline(task, width);
+
+        case Task.TYPE_CATEGORY:
+            return TYPE_LETTERS.indexOf(Character.toUpperCase(task.getTypeSymbol().charAt(1)));
+
+        case Task.STATUS_CATEGORY:
+            return task.getStatus();
+
+        default:
+            throw new IllegalArgumentException("Unknown sort category " + sortCategory);
+        }
+    }
+
+    /**
+     * Sorts each run of tasks with equal packed keys by the full comparator.
+     * The runs are in position order and the sort is stable, so equal tasks
+     * keep their original order.
+     */
+    private static void breakTies(Task[] sortedTasks, long[] packedKeys, int positionBits,
+            Comparator<Task> comparator) {
+        int runStart = 0;
+        for (int i = 1; i <= sortedTasks.length; i++) {
+            if (i == sortedTasks.length || packedKeys[i] >>> positionBits != packedKeys[runStart] >>> positionBits) {
+                if (i - runStart > 1) {
+                    Arrays.sort(sortedTasks, runStart, i, comparator);
+                }
+                runStart = i;
+            }
+        }
+    }
+
+    /**
+     * Packs the first characters of the name into a long, 7 bits per
+     * character, so that a smaller packed prefix always belongs to a smaller
+     * name. Characters outside ASCII all map to NAME_CHAR_ESCAPE and end the
+     * prefix, since names that tie there can only be told apart in full.
+     */
+    private static long packNamePrefix(String name, int prefixLength) {
+        long packed = 0;
+        boolean isEscaped = false;
+        for (int i = 0; i < prefixLength; i++) {
+            packed <<= BITS_PER_NAME_CHAR;
+            if (i < name.length() && !isEscaped) {
+                char c = name.charAt(i);
+                isEscaped = c >= NAME_CHAR_ESCAPE;
+                packed |= isEscaped ? NAME_CHAR_ESCAPE : c;
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Packs a deadline as minutes around the epoch. Like the deadline
+     * comparator, Todos take the largest key and go last, just after the
+     * other tasks without a date, such as an Event at a venue.
+     */
+    private static long packDeadline(Task task, int width) {
+        long maxKey = (1L << width) - 1;
+        if (task instanceof Todo) {
+            return maxKey;
+        }
+        long deadlineMinutes = task.getDeadlineMinutes();
+        if (deadlineMinutes == Task.NO_DEADLINE) {
+            return maxKey - 1;
+        }
+        long key = deadlineMinutes + (1L << (width - 1));
+        return key >= 0 && key < maxKey - 1 ? key : -1;
+    }
+}
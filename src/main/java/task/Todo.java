@@ -6,7 +6,7 @@ package task;
 public class Todo extends Task {
 
     Todo(String name) {
-        super(name);
+        super(name, "");
     }
 
     @Override
@@ -0,0 +1,150 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A subscriber that hands items to a consumer in batches rather than one
+ * at a time. A batch is handed over once it is full, or once its first
+ * item has waited for the linger time, so that a burst of items costs one
+ * call while a single item is still handled soon. It never asks for more
+ * items than fit in one batch, so a slow consumer holds back the
+ * publisher instead of piling up items.
+ *
+ * <p>The consumer is called with one batch at a time, on the publisher's
+ * thread or on a shared timer thread.
+ *
+ * @param <T> The type of the items.
+ */
+public class BatchingSubscriber<T> implements Flow.Subscriber<T> {
+    private static final ScheduledExecutorService LINGER_TIMER =
+            Executors.newSingleThreadScheduledExecutor(BatchingSubscriber::newTimerThread);
+
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final Consumer<List<T>> consumer;
+    private final Runnable onComplete;
+    private Flow.Subscription subscription;
+    private List<T> batch = new ArrayList<>();
+    private ScheduledFuture<?> lingerFlush;
+    private boolean isCancelled;
+
+    /**
+     * Creates a subscriber that hands batches to the consumer.
+     *
+     * @param maxBatchSize The most items in one batch.
+     * @param lingerMillis How long the first item of a batch may wait for
+     *                     more items, in milliseconds.
+     * @param consumer     The consumer of the batches.
+     */
+    public BatchingSubscriber(int maxBatchSize, long lingerMillis, Consumer<List<T>> consumer) {
+        this(maxBatchSize, lingerMillis, consumer, () -> {});
+    }
+
+    /**
+     * Creates a subscriber that hands batches to the consumer and runs
+     * onComplete after the last batch once the publisher is closed.
+     *
+     * @param maxBatchSize The most items in one batch.
+     * @param lingerMillis How long the first item of a batch may wait for
+     *                     more items, in milliseconds.
+     * @param consumer     The consumer of the batches.
+     * @param onComplete   What to run when there are no more items.
+     */
+    public BatchingSubscriber(int maxBatchSize, long lingerMillis, Consumer<List<T>> consumer, Runnable onComplete) {
+        assert maxBatchSize > 0 : "A batch must hold at least one item.";
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.consumer = consumer;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null || isCancelled) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(maxBatchSize);
+    }
+
+    @Override
+    public synchronized void onNext(T item) {
+        if (isCancelled) {
+            return;
+        }
+        batch.add(item);
+        if (batch.size() >= maxBatchSize) {
+            flush();
+        } else if (lingerFlush == null) {
+            lingerFlush = LINGER_TIMER.schedule(this::flushLingering, lingerMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        flush();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        flush();
+        onComplete.run();
+    }
+
+    /**
+     * Stops receiving items. Items not handed over yet are dropped.
+     */
+    public synchronized void cancel() {
+        isCancelled = true;
+        batch.clear();
+        if (lingerFlush != null) {
+            lingerFlush.cancel(false);
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private static Thread newTimerThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "duke-batch-timer");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private synchronized void flushLingering() {
+        if (!isCancelled) {
+            flush();
+        }
+    }
+
+    /**
+     * Hands the items received so far to the consumer and asks the
+     * publisher for as many more.
+     */
+    private void flush() {
+        if (lingerFlush != null) {
+            lingerFlush.cancel(false);
+            lingerFlush = null;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<T> fullBatch = batch;
+        batch = new ArrayList<>();
+        try {
+            consumer.accept(fullBatch);
+        } finally {
+            if (subscription != null && !isCancelled) {
+                subscription.request(fullBatch.size());
+            }
+        }
+    }
+}
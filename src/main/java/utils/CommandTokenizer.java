@@ -0,0 +1,148 @@
+package utils;
+
+/**
+ * Splits lines of user input into their action, arguments, task details and
+ * numbers in a single left-to-right walk over the characters. Results are
+ * written into a reusable ParsedCommand as offsets, so tokenizing a line
+ * compiles no regular expressions and allocates nothing.
+ */
+class CommandTokenizer {
+    /**
+     * Returned by parseInt when the text is not a number that fits an int.
+     */
+    static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
+    private CommandTokenizer() {
+    }
+
+    /**
+     * Splits a line into the action keyword, which is its first word, and
+     * the arguments, which are the rest of the line without surrounding
+     * whitespace.
+     *
+     * @param input  The raw line of user input.
+     * @param result The ParsedCommand to be filled in, which is reset first.
+     */
+    static void tokenize(String input, ParsedCommand result) {
+        result.reset(input);
+        int end = input.length();
+        int actionStart = skipWhitespace(input, 0, end);
+        int actionEnd = skipToken(input, actionStart, end);
+        result.setAction(actionStart, actionEnd);
+        int argumentsStart = skipWhitespace(input, actionEnd, end);
+        result.setArguments(argumentsStart, trimEnd(input, argumentsStart, end));
+    }
+
+    /**
+     * Splits the arguments at the first occurrence of the delimiter into a
+     * task name and its additional info, both without surrounding
+     * whitespace. The info ends at the next occurrence of the delimiter, if
+     * there is one.
+     *
+     * @param command   A tokenized ParsedCommand, whose detail is filled in.
+     * @param delimiter The keyword between the name and the info, such as "/by".
+     */
+    static void splitDetail(ParsedCommand command, String delimiter) {
+        String input = command.getInput();
+        int start = command.getArgumentsStart();
+        int end = command.getArgumentsEnd();
+        int delimiterStart = indexOf(input, delimiter, start, end);
+        if (delimiterStart < 0) {
+            command.setDetail(start, end, ParsedCommand.ABSENT, ParsedCommand.ABSENT);
+            return;
+        }
+        int infoStart = skipWhitespace(input, delimiterStart + delimiter.length(), end);
+        int nextDelimiterStart = indexOf(input, delimiter, infoStart, end);
+        int infoEnd = nextDelimiterStart < 0 ? end : trimEnd(input, infoStart, nextDelimiterStart);
+        command.setDetail(start, trimEnd(input, start, delimiterStart), infoStart, infoEnd);
+    }
+
+    /**
+     * Reads a decimal integer with an optional sign from part of the text.
+     *
+     * @param text  The text holding the number.
+     * @param start The offset of the first character of the number.
+     * @param end   The offset just after the last character of the number.
+     * @return The number, or NOT_A_NUMBER if the part is empty, has a
+     * character that is not a digit or does not fit an int.
+     */
+    static int parseInt(String text, int start, int end) {
+        if (start >= end) {
+            return NOT_A_NUMBER;
+        }
+        boolean isNegative = text.charAt(start) == '-';
+        int i = isNegative || text.charAt(start) == '+' ? start + 1 : start;
+        if (i == end) {
+            return NOT_A_NUMBER;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                return NOT_A_NUMBER;
+            }
+        }
+        value = isNegative ? -value : value;
+        return value > Integer.MAX_VALUE || value <= NOT_A_NUMBER ? NOT_A_NUMBER : (int) value;
+    }
+
+    /**
+     * Returns the offset of the first character at or after from that is not
+     * whitespace, or end if there is none.
+     */
+    static int skipWhitespace(String text, int from, int end) {
+        int i = from;
+        while (i < end && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the offset just after the word starting at from, which is the
+     * first whitespace character at or after from, or end if there is none.
+     */
+    static int skipToken(String text, int from, int end) {
+        int i = from;
+        while (i < end && !isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Checks whether part of the text is exactly the given word.
+     */
+    static boolean regionEquals(String text, int start, int end, String word) {
+        return end - start == word.length() && text.regionMatches(start, word, 0, word.length());
+    }
+
+    /**
+     * Returns the offset just after the last character before end that is
+     * not whitespace, or start if there is none.
+     */
+    static int trimEnd(String text, int start, int end) {
+        int i = end;
+        while (i > start && isWhitespace(text.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static int indexOf(String text, String word, int start, int end) {
+        int idx = text.indexOf(word, start);
+        return idx < 0 || idx + word.length() > end ? -1 : idx;
+    }
+
+    /**
+     * Treats every control character and space as whitespace, like
+     * String.trim does.
+     */
+    private static boolean isWhitespace(char c) {
+        return c <= ' ';
+    }
+}
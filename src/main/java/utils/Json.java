@@ -0,0 +1,275 @@
+package utils;
+
+import command.CommandResult;
+import task.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the small JSON documents of ApiServer. Requests are flat
+ * objects of strings, numbers and booleans, and responses are written from
+ * a CommandResult, so no general JSON library is needed.
+ */
+public class Json {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    /**
+     * Formats the result of a command as a JSON object with the messages,
+     * errors and tasks in it. Tasks from a list or page carry their 1-based
+     * index in the whole list; the page fields are only present for a page.
+     *
+     * @param result The result of the command.
+     * @return The JSON object.
+     */
+    public static String render(CommandResult result) {
+        List<String> messages = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        StringBuilder tasks = new StringBuilder();
+        StringBuilder other = new StringBuilder();
+        for (CommandResult.Entry entry : result.getEntries()) {
+            switch (entry.getKind()) {
+            case MESSAGE:
+                messages.add(entry.getText());
+                break;
+            case ERROR:
+                errors.add(entry.getText());
+                break;
+            case TASK:
+                appendTask(tasks, entry.getTask(), 0);
+                break;
+            case TASK_COUNT:
+                other.append(",\"taskCount\":").append(entry.getNumber());
+                break;
+            case TASK_LIST:
+                messages.add(entry.getText());
+                appendTasks(tasks, entry.getTasks(), 0);
+                break;
+            default:
+                messages.add(entry.getText());
+                appendTasks(tasks, entry.getTasks(), entry.getNumber());
+                other.append(",\"pageNumber\":").append(entry.getPageNumber())
+                        .append(",\"pageCount\":").append(entry.getPageCount());
+                break;
+            }
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"ok\":").append(!result.hasError());
+        json.append(",\"messages\":");
+        appendStrings(json, messages);
+        json.append(",\"errors\":");
+        appendStrings(json, errors);
+        json.append(",\"tasks\":[").append(tasks).append(']');
+        json.append(other);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Reads a flat JSON object. Nested objects and arrays are not supported.
+     *
+     * @param json The JSON text.
+     * @return The members of the object, with every value as a String, or
+     * null if the text is not such an object.
+     */
+    public static Map<String, String> parseObject(String json) {
+        Map<String, String> members = new LinkedHashMap<>();
+        int[] position = {skipWhitespace(json, 0)};
+        if (!consume(json, position, '{')) {
+            return null;
+        }
+        if (consume(json, position, '}')) {
+            return skipWhitespace(json, position[0]) == json.length() ? members : null;
+        }
+        do {
+            String name = readString(json, position);
+            if (name == null || !consume(json, position, ':')) {
+                return null;
+            }
+            String value = readValue(json, position);
+            if (value == null) {
+                return null;
+            }
+            members.put(name, value);
+        } while (consume(json, position, ','));
+        if (!consume(json, position, '}') || skipWhitespace(json, position[0]) != json.length()) {
+            return null;
+        }
+        return members;
+    }
+
+    /**
+     * Appends the text as a quoted JSON string.
+     *
+     * @param json The builder the string is appended to.
+     * @param text The text to be quoted.
+     */
+    public static void appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+                } else {
+                    json.append(c);
+                }
+                break;
+            }
+        }
+        json.append('"');
+    }
+
+    private static void appendStrings(StringBuilder json, List<String> texts) {
+        json.append('[');
+        for (int i = 0; i < texts.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, texts.get(i).strip());
+        }
+        json.append(']');
+    }
+
+    private static void appendTasks(StringBuilder json, List<Task> tasks, int offset) {
+        for (int i = 0; i < tasks.size(); i++) {
+            appendTask(json, tasks.get(i), offset + i + 1);
+        }
+    }
+
+    /**
+     * Appends a task as a JSON object, with its index if it is known.
+     *
+     * @param index The 1-based index of the task, or 0 if it is unknown.
+     */
+    private static void appendTask(StringBuilder json, Task task, int index) {
+        if (json.length() > 0) {
+            json.append(',');
+        }
+        json.append('{');
+        if (index > 0) {
+            json.append("\"index\":").append(index).append(',');
+        }
+        json.append("\"type\":");
+        appendString(json, task.getClass().getSimpleName().toLowerCase());
+        json.append(",\"name\":");
+        appendString(json, task.getName());
+        json.append(",\"time\":");
+        appendString(json, task.getAdditionalInfo());
+        json.append(",\"done\":").append(task.getStatus() == Task.DONE);
+        json.append('}');
+    }
+
+    private static int skipWhitespace(String json, int position) {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Skips whitespace and the expected character, if it is next.
+     */
+    private static boolean consume(String json, int[] position, char expected) {
+        int next = skipWhitespace(json, position[0]);
+        if (next < json.length() && json.charAt(next) == expected) {
+            position[0] = next + 1;
+            return true;
+        }
+        return false;
+    }
+
+    private static String readValue(String json, int[] position) {
+        int start = skipWhitespace(json, position[0]);
+        if (start < json.length() && json.charAt(start) == '"') {
+            return readString(json, position);
+        }
+        int end = start;
+        while (end < json.length() && ",}".indexOf(json.charAt(end)) < 0
+                && !Character.isWhitespace(json.charAt(end))) {
+            end++;
+        }
+        if (end == start) {
+            return null;
+        }
+        position[0] = end;
+        String literal = json.substring(start, end);
+        boolean isNumber = literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+        return isNumber || literal.equals("true") || literal.equals("false") ? literal : null;
+    }
+
+    private static String readString(String json, int[] position) {
+        if (!consume(json, position, '"')) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = position[0]; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                position[0] = i + 1;
+                return text.toString();
+            }
+            if (c != '\\') {
+                text.append(c);
+                continue;
+            }
+            if (++i == json.length()) {
+                return null;
+            }
+            char escaped = json.charAt(i);
+            switch (escaped) {
+            case 'n':
+                text.append('\n');
+                break;
+            case 'r':
+                text.append('\r');
+                break;
+            case 't':
+                text.append('\t');
+                break;
+            case 'b':
+                text.append('\b');
+                break;
+            case 'f':
+                text.append('\f');
+                break;
+            case 'u':
+                if (i + 4 >= json.length()) {
+                    return null;
+                }
+                try {
+                    text.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                i += 4;
+                break;
+            default:
+                text.append(escaped);
+                break;
+            }
+        }
+        return null;
+    }
+}
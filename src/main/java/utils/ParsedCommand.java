@@ -0,0 +1,155 @@
+package utils;
+
+/**
+ * The result of tokenizing one line of user input with CommandTokenizer.
+ * Every part of the command is kept as a span of offsets into the input,
+ * and a String is only cut out of the input when a part is asked for, so
+ * one ParsedCommand can be reused for every line the Parser reads.
+ */
+class ParsedCommand {
+    /**
+     * The offset of a span that is not present in the input.
+     */
+    static final int ABSENT = -1;
+
+    private String input;
+    private int actionStart;
+    private int actionEnd;
+    private int argumentsStart;
+    private int argumentsEnd;
+    private int nameStart;
+    private int nameEnd;
+    private int infoStart;
+    private int infoEnd;
+    private String action;
+
+    /**
+     * Points the spans at a new line of input and forgets the old one.
+     *
+     * @param input The line of input that is about to be tokenized.
+     */
+    void reset(String input) {
+        this.input = input;
+        action = null;
+        actionStart = 0;
+        actionEnd = 0;
+        argumentsStart = 0;
+        argumentsEnd = 0;
+        clearDetail();
+    }
+
+    /**
+     * Replaces the input with one that only holds the arguments, for the
+     * rare edits that cannot be expressed by moving the argument span.
+     *
+     * @param arguments The new arguments.
+     */
+    void replaceArguments(String arguments) {
+        getAction();
+        input = arguments;
+        argumentsStart = 0;
+        argumentsEnd = arguments.length();
+        clearDetail();
+    }
+
+    String getInput() {
+        return input;
+    }
+
+    /**
+     * Returns the action keyword, cutting it out of the input the first time
+     * it is asked for.
+     *
+     * @return The action keyword.
+     */
+    String getAction() {
+        if (action == null) {
+            action = input.substring(actionStart, actionEnd);
+        }
+        return action;
+    }
+
+    int getActionStart() {
+        return actionStart;
+    }
+
+    int getActionEnd() {
+        return actionEnd;
+    }
+
+    void setAction(int start, int end) {
+        actionStart = start;
+        actionEnd = end;
+    }
+
+    int getArgumentsStart() {
+        return argumentsStart;
+    }
+
+    int getArgumentsEnd() {
+        return argumentsEnd;
+    }
+
+    void setArguments(int start, int end) {
+        argumentsStart = start;
+        argumentsEnd = end;
+    }
+
+    boolean hasArguments() {
+        return argumentsStart < argumentsEnd;
+    }
+
+    String getArguments() {
+        return input.substring(argumentsStart, argumentsEnd);
+    }
+
+    /**
+     * Checks whether the arguments are exactly the given text, without
+     * cutting them out of the input.
+     *
+     * @param text The text to compare with.
+     * @return True if the arguments equal the text, false otherwise.
+     */
+    boolean argumentsEqual(String text) {
+        return argumentsEnd - argumentsStart == text.length()
+                && input.regionMatches(argumentsStart, text, 0, text.length());
+    }
+
+    /**
+     * Records the two parts of a task detail split at a delimiter such as
+     * "/by". The info span is ABSENT if the delimiter was not found.
+     */
+    void setDetail(int nameStart, int nameEnd, int infoStart, int infoEnd) {
+        this.nameStart = nameStart;
+        this.nameEnd = nameEnd;
+        this.infoStart = infoStart;
+        this.infoEnd = infoEnd;
+    }
+
+    boolean hasDelimiter() {
+        return infoStart != ABSENT;
+    }
+
+    boolean isNameBlank() {
+        return nameStart >= nameEnd;
+    }
+
+    boolean isInfoBlank() {
+        return infoStart >= infoEnd;
+    }
+
+    String getName() {
+        return input.substring(nameStart, nameEnd);
+    }
+
+    String getInfo() {
+        return input.substring(infoStart, infoEnd);
+    }
+
+    private void clearDetail() {
+        nameStart = ABSENT;
+        nameEnd = ABSENT;
+        infoStart = ABSENT;
+        infoEnd = ABSENT;
+    }
+}
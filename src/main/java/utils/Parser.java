@@ -4,12 +4,12 @@ import command.CommandCentre;
 import exception.EmptyDescriptionException;
 import exception.InvalidArgumentException;
 import exception.InvalidCommandException;
-import task.Task;
+import task.SortOrder;
+import task.TaskDateTime;
 import task.TaskList;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -17,13 +17,25 @@ import java.util.Scanner;
  */
 public class Parser {
 
-    public static final String DATE_FORMATTER_PATTERN = "dd/MM/yyyy HHmm";
-    private static final String EVENT_KEYWORD = "/at";
-    private static final String DEADLINE_KEYWORD = "/by";
+    public static final String DATE_FORMATTER_PATTERN = TaskDateTime.PATTERN;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int UNPAGED = 0;
+    public static final String PAGE_OPTION = "--page";
+    public static final String SIZE_OPTION = "--size";
+    private static final String SORT_OFF_KEYWORD = "off";
+    public static final String EVENT_KEYWORD = "/at";
+    public static final String DEADLINE_KEYWORD = "/by";
+    /**
+     * Returned by extractOption when the option is not given.
+     */
+    private static final long OPTION_ABSENT = Long.MIN_VALUE;
     private Scanner sc;
     private Ui ui;
     private CommandCentre commandCentre;
-    private String arguments;
+    /**
+     * The tokenized form of the latest input, reused for every input.
+     */
+    private final ParsedCommand command = new ParsedCommand();
 
     public Parser() {
         ui = new Ui();
@@ -42,19 +54,27 @@ public class Parser {
     }
 
     /**
-     * Reads and returns the next action in the user input.
+     * Reads and returns the next action in the user input. The action word
+     * may be a command name, an alias or an unambiguous prefix of a command
+     * name, except for the commands that must be typed in full, such as
+     * "undo".
      *
-     * @return The next action string.
+     * @return The name of the command the action refers to, or null if it
+     * refers to no command or to more than one.
      */
     public String getNextAction(String input) {
-        String[] inputArray = parseRawInput(input);
-        String action = inputArray[0].trim();
-        arguments = inputArray[1].trim();
+        CommandTokenizer.tokenize(input, command);
+        String text = command.getInput();
+        int start = command.getActionStart();
+        int end = command.getActionEnd();
+        String action = commandCentre.resolve(text, start, end);
         try {
-            if (!commandCentre.contains(action)) {
-                throw new InvalidCommandException(ui.buildInvalidCommandMessage());
+            if (action == null) {
+                List<String> candidates = commandCentre.getCandidates(text, start, end);
+                throw new InvalidCommandException(candidates.size() > 1 && start < end
+                        ? ui.buildAmbiguousCommandMessage(candidates)
+                        : ui.buildInvalidCommandMessage());
             }
-
         } catch (InvalidCommandException e) {
             ui.appendMessage(e.getMessage());
             return null;
@@ -72,16 +92,10 @@ public class Parser {
      * HHmm". Else, a null object.
      */
     public String[] parseEventDetail() {
-        String taskName = arguments;
         // Separates a line "taskName /at 20/08/2019 2100" to
         // {"taskName", "20/08/2019 2100"}
-        String[] taskInfo = taskName.split("\\s*" + EVENT_KEYWORD + "\\s*");
-        boolean isValid = validateTaskInfo(taskInfo);
-        if (isValid) {
-            return taskInfo;
-        } else {
-            return null;
-        }
+        CommandTokenizer.splitDetail(command, EVENT_KEYWORD);
+        return parseTaskInfo();
     }
 
     /**
@@ -93,16 +107,10 @@ public class Parser {
      * HHmm". Else, a null object.
      */
     public String[] parseDeadlineDetail() {
-        String taskName = arguments;
         // Separates a line "taskName /by 20/08/2019 2100" to
         // {"taskName", "20/08/2019 2100"}
-        String[] taskInfo = taskName.split("\\s*" + DEADLINE_KEYWORD + "\\s*");
-        boolean isValid = validateTaskInfo(taskInfo);
-        if (isValid) {
-            return taskInfo;
-        } else {
-            return null;
-        }
+        CommandTokenizer.splitDetail(command, DEADLINE_KEYWORD);
+        return parseTaskInfo();
     }
 
     /**
@@ -114,7 +122,7 @@ public class Parser {
      * Else, a null object.
      */
     public String parseTodoDetail() {
-        String taskName = arguments;
+        String taskName = command.getArguments();
         boolean isValid = validateDescriptionNotEmpty(taskName);
         if (isValid) {
             return taskName;
@@ -130,15 +138,13 @@ public class Parser {
      * @return If successful, an Integer representing the task index. Else, a null object.
      */
     public Integer parseTaskIdx() {
-        String infoString = arguments;
         TaskList taskList = TaskList.newInstance();
-        int idx;
-        try {
-            idx = Integer.parseInt(infoString) - 1;
-        } catch (NumberFormatException e) {
+        int taskNumber = parseArgumentsAsInt();
+        if (taskNumber == CommandTokenizer.NOT_A_NUMBER) {
             ui.appendMessage(ui.buildInvalidTaskListIndexMessage(taskList.size()));
             return null;
         }
+        int idx = taskNumber - 1;
 
         try {
             taskList.get(idx);
@@ -161,7 +167,7 @@ public class Parser {
      * @return If successful, the String representation of the keyword. Else, a null object.
      */
     public String parseKeyword() {
-        String keyword = arguments.trim();
+        String keyword = command.getArguments();
         boolean isValid = validateDescriptionNotEmpty(keyword);
         if (isValid) {
             return keyword;
@@ -170,34 +176,128 @@ public class Parser {
         }
     }
 
-    public String[] parseSortInfo() {
-        String keyword = arguments.trim();
-        String[] sortInfo = parseRawInput(keyword);
-        return sortInfo;
+    /**
+     * Reads and removes the "--page" and "--size" options from the arguments
+     * so that the remaining arguments can be parsed as usual. Invalid option
+     * values will be highlighted to the user.
+     *
+     * @return If successful, an array of length 2 consisting of the page number
+     * and page size. The page number is UNPAGED if neither option is given.
+     * Else, a null object.
+     */
+    public int[] parsePageOptions() {
+        long pageOption = extractOption(PAGE_OPTION);
+        long sizeOption = extractOption(SIZE_OPTION);
+        int pageNumber = pageOption == OPTION_ABSENT ? UNPAGED : (int) pageOption;
+        int pageSize = sizeOption == OPTION_ABSENT ? DEFAULT_PAGE_SIZE : (int) sizeOption;
+        try {
+            if ((pageOption != OPTION_ABSENT && pageNumber < 1) || pageSize < 1) {
+                throw new InvalidArgumentException(ui.buildInvalidPageOptionMessage());
+            }
+        } catch (InvalidArgumentException e) {
+            ui.appendMessage(e.getMessage());
+            return null;
+        }
+
+        if (pageNumber == UNPAGED && sizeOption != OPTION_ABSENT) {
+            pageNumber = 1;
+        }
+        return new int[]{pageNumber, pageSize};
     }
 
+    /**
+     * Checks whether any arguments were given after the action keyword.
+     *
+     * @return True if there are arguments, false otherwise.
+     */
+    public boolean hasArguments() {
+        return command.hasArguments();
+    }
 
-    public int parseKeywordAsSortCategory(String keyword) {
-        switch (keyword) {
-        case "name":
-            return Task.NAME_CATEGORY;
+    /**
+     * Reads the number of upcoming tasks to be shown by the "next" action.
+     * Invalid input argument types will be highlighted to the user.
+     *
+     * @return If successful, a positive Integer. Else, a null object.
+     */
+    public Integer parseUpcomingCount() {
+        try {
+            int count = parseArgumentsAsInt();
+            if (count < 1) {
+                throw new InvalidArgumentException(ui.buildInvalidUpcomingCountMessage());
+            }
+            return count;
+        } catch (InvalidArgumentException e) {
+            ui.appendMessage(e.getMessage());
+            return null;
+        }
+    }
 
-        case "deadline":
-            return Task.DEADLINE_CATEGORY;
+    /**
+     * Checks whether the "sort" action asks to stop keeping the list sorted.
+     *
+     * @return True if the only argument is "off", false otherwise.
+     */
+    public boolean isSortOff() {
+        return command.argumentsEqual(SORT_OFF_KEYWORD);
+    }
 
-        case "type":
-            return Task.TYPE_CATEGORY;
+    /**
+     * Reads the sort categories after the "sort" action keyword, such as
+     * "status deadline name:r". A category followed by ":r", or by a
+     * separate "r", is sorted in reverse. Invalid categories will be
+     * highlighted to the user.
+     *
+     * @return If successful, the SortOrder. Else, a null object.
+     */
+    public SortOrder parseSortOrder() {
+        String input = command.getInput();
+        int end = command.getArgumentsEnd();
+        // A sort order has at most one category per word, and a word has at
+        // least one character and one separator, except for the last word.
+        int maxCount = (end - command.getArgumentsStart() + 1) / 2;
+        int[] categories = new int[maxCount];
+        boolean[] isReversed = new boolean[maxCount];
+        int count = 0;
+        int wordStart = command.getArgumentsStart();
+        while (wordStart < end) {
+            int wordEnd = CommandTokenizer.skipToken(input, wordStart, end);
+            if (count > 0 && CommandTokenizer.regionEquals(input, wordStart, wordEnd, "r")) {
+                isReversed[count - 1] = true;
+            } else {
+                boolean isWordReversed = wordEnd - wordStart > SortOrder.REVERSED_SUFFIX.length()
+                        && input.startsWith(SortOrder.REVERSED_SUFFIX, wordEnd - SortOrder.REVERSED_SUFFIX.length());
+                int keywordEnd = isWordReversed ? wordEnd - SortOrder.REVERSED_SUFFIX.length() : wordEnd;
+                int sortCategory = parseKeywordAsSortCategory(SortOrder.getCategory(input, wordStart, keywordEnd));
+                if (sortCategory < 0) {
+                    return null;
+                }
+                categories[count] = sortCategory;
+                isReversed[count] = isWordReversed;
+                count++;
+            }
+            wordStart = CommandTokenizer.skipWhitespace(input, wordEnd, end);
+        }
+        if (count == 0) {
+            ui.appendMessage(ui.buildInvalidSortCategoryMessage());
+            return null;
+        }
+        return new SortOrder(Arrays.copyOf(categories, count), Arrays.copyOf(isReversed, count));
+    }
 
-        case "status":
-            return Task.STATUS_CATEGORY;
+    public int parseKeywordAsSortCategory(String keyword) {
+        return parseKeywordAsSortCategory(SortOrder.getCategory(keyword));
+    }
 
-        default:
-            try {
+    private int parseKeywordAsSortCategory(int sortCategory) {
+        try {
+            if (sortCategory < 0) {
                 throw new InvalidArgumentException(ui.buildInvalidSortCategoryMessage());
-            } catch (InvalidArgumentException e) {
-                ui.appendMessage(e.getMessage());
-                return -1;
             }
+            return sortCategory;
+        } catch (InvalidArgumentException e) {
+            ui.appendMessage(e.getMessage());
+            return -1;
         }
     }
 
@@ -213,64 +313,76 @@ public class Parser {
         }
     }
 
-    private boolean validateTaskInfo(String[] taskInfo) {
-        String dateString;
+    /**
+     * Validates the task detail split by CommandTokenizer.splitDetail and
+     * returns its name and info.
+     *
+     * @return If successful, an array of String of length 2 consisting of the
+     * Task's name and info. Else, a null object.
+     */
+    private String[] parseTaskInfo() {
         try {
-            if (validateArgumentsNotBlank(taskInfo)) {
+            if (command.isNameBlank()) {
                 throw new EmptyDescriptionException(ui.buildEmptyDescriptionMessage());
             }
-            dateString = taskInfo[1];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            ui.appendMessage(ui.buildIncorrectArgumentsMessage());
-            return false;
-
-        } catch (EmptyDescriptionException e) {
+            if (!command.hasDelimiter() || command.isInfoBlank()) {
+                throw new InvalidArgumentException(ui.buildIncorrectArgumentsMessage());
+            }
+        } catch (EmptyDescriptionException | InvalidArgumentException e) {
             ui.appendMessage(e.getMessage());
-            return false;
+            return null;
         }
 
+        String dateString = command.getInfo();
         try {
-            validateDateFormat(dateString);
-        } catch (ParseException e) {
-            ui.appendMessage(ui.buildIncorrectDateFormatMessage());
-            return false;
-
+            if (!TaskDateTime.isValid(dateString)) {
+                throw new InvalidArgumentException(ui.buildIncorrectDateFormatMessage());
+            }
+        } catch (InvalidArgumentException e) {
+            ui.appendMessage(e.getMessage());
+            return null;
         }
-        return true;
-    }
-
-    private void validateDateFormat(String dateString) throws ParseException {
-        SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMATTER_PATTERN);
-        sdf.setLenient(false);
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(sdf.parse(dateString));
-    }
-
-    private boolean validateArgumentsNotBlank(String[] taskInfo) {
-        return taskInfo.length == 0 || taskInfo[0].isBlank() || taskInfo[1].isBlank();
+        return new String[]{command.getName(), dateString};
     }
 
     /**
-     * Splits the raw user input String into the first action keyword and its arguments.
+     * Removes an option word and the value that follows it from the
+     * arguments. Options at either end of the arguments are removed by
+     * moving the argument span; only an option in the middle makes a new
+     * String.
      *
-     * @param input The raw user input sent to the Duke chat bot via the javafx GUI.
-     * @return An array of size two which contains the "action" as the first element and
-     * "arguments" as the second element. If there are no additional arguments to the
-     * action, the second element will simply be an empty string.
+     * @param option The option keyword, such as "--page".
+     * @return The value given to the option, CommandTokenizer.NOT_A_NUMBER
+     * if the value is not a number, or OPTION_ABSENT if the option is absent.
      */
-    private String[] parseRawInput(String input) {
-        StringBuilder first = new StringBuilder();
-        StringBuilder second = new StringBuilder();
-        for (int i = 0; i < input.length(); i++) {
-            Character c = input.charAt(i);
-            if (c != ' ') {
-                first.append(c);
-            } else {
-                second.append(input.substring(i));
-                break;
+    private long extractOption(String option) {
+        String input = command.getInput();
+        int start = command.getArgumentsStart();
+        int end = command.getArgumentsEnd();
+        int wordStart = start;
+        while (wordStart < end) {
+            int wordEnd = CommandTokenizer.skipToken(input, wordStart, end);
+            if (CommandTokenizer.regionEquals(input, wordStart, wordEnd, option)) {
+                int valueStart = CommandTokenizer.skipWhitespace(input, wordEnd, end);
+                int valueEnd = CommandTokenizer.skipToken(input, valueStart, end);
+                int value = CommandTokenizer.parseInt(input, valueStart, valueEnd);
+                int nextWordStart = CommandTokenizer.skipWhitespace(input, valueEnd, end);
+                if (nextWordStart == end) {
+                    command.setArguments(start, CommandTokenizer.trimEnd(input, start, wordStart));
+                } else if (wordStart == start) {
+                    command.setArguments(nextWordStart, end);
+                } else {
+                    command.replaceArguments(input.substring(start, wordStart) + input.substring(nextWordStart, end));
+                }
+                return value;
             }
+            wordStart = CommandTokenizer.skipWhitespace(input, wordEnd, end);
         }
-        return new String[]{first.toString(), second.toString().trim()};
+        return OPTION_ABSENT;
+    }
+
+    private int parseArgumentsAsInt() {
+        return CommandTokenizer.parseInt(command.getInput(), command.getArgumentsStart(), command.getArgumentsEnd());
     }
 
 
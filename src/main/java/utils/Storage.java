@@ -1,27 +1,112 @@
 package utils;
 
+import task.SortOrder;
 import task.Task;
+import task.TaskHistory;
 import task.TaskList;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
+import java.io.FileReader;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Manages the I/O for accessing and updating of a stored task list in
- * the file directory.
+ * the file directory. Every file is written to a temporary file first and
+ * then moved over the old one, so a crash never leaves a half-written file.
+ *
+ * <p>Several processes may share a storage file. A process holds an
+ * advisory lock on a ".lock" file next to it while it runs a command, see
+ * acquire, and for as long as it has changes that are not written yet, so
+ * that commands from different processes never overlap. The first line of
+ * the storage file holds a generation that goes up with every write, with
+ * the number of leading tasks that are the same as in the generation
+ * before and where they end. When a process finds that the file has been
+ * replaced since it last read or wrote it, it reads only the tasks after
+ * that point and applies just the tasks that differ to its TaskList.
  */
 public class Storage {
     private static final String SEPARATOR = " | ";
-    private static File file;
+    private static final String SEPARATOR_REGEX = "\\s*\\|\\s*";
+    /**
+     * Marks the first line, "G | generation | base generation | unchanged
+     * task count | unchanged bytes", where the unchanged tasks are the same
+     * as in the base generation and the bytes count from the end of the line.
+     */
+    private static final String GENERATION_TYPE = "G";
+    /**
+     * Marks the line that holds the order the list is kept sorted in.
+     */
+    private static final String SORT_ORDER_TYPE = "S";
+    /**
+     * The suffix of the file next to the storage file that holds the undo
+     * history.
+     */
+    public static final String HISTORY_SUFFIX = ".history";
+    /**
+     * The suffix of the file next to the storage file that is locked while
+     * the storage file is read or changed. The storage file itself cannot be
+     * locked, since every write replaces it with a new file.
+     */
+    public static final String LOCK_SUFFIX = ".lock";
 
+    private final File file;
     private TaskList taskList;
+    private TaskHistory history;
+    /**
+     * Whether every change is written to the file straight away. When it is
+     * false, changes are only written by flush.
+     */
+    private boolean isAutoSave = true;
+    private boolean hasUnsavedChanges = false;
+    /**
+     * Whether a transaction is open, during which nothing is written until
+     * it is committed.
+     */
+    private boolean isInTransaction = false;
+    private boolean hadUnsavedChangesBeforeTransaction;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    /**
+     * The number of calls to acquire that have not been released yet.
+     */
+    private int holdCount;
+    /**
+     * What the storage file held when it was last read or written, which is
+     * what the TaskList holds whenever the lock is not held.
+     */
+    private long generation;
+    private String savedSortOrder;
+    /**
+     * The tasks in the storage file. Tasks never change once they are in
+     * the TaskList, so a task that is still there was written unchanged.
+     */
+    private List<Task> savedTasks = new ArrayList<>();
+    private Object savedFileKey;
+    private long savedModifiedMillis;
+    private long savedSize;
 
     /**
-     * Loads data into the TaskList if the storage file already exists. Else
-     * creates a new file.
+     * Points the storage at a file. The tasks in it are not loaded until
+     * load is called.
      *
      * @param absolutePathName The full path name of the file to specify its
      *                         stored location.
@@ -29,14 +114,32 @@ public class Storage {
     public Storage(String absolutePathName) {
         file = new File(absolutePathName);
         taskList = TaskList.newInstance();
-        if (file.exists()) {
-            loadData();
-        } else {
-            try {
+    }
+
+    /**
+     * Sets the undo history that is saved and loaded together with the
+     * tasks, so that undo still works after a restart.
+     *
+     * @param history The history of changes to the TaskList.
+     */
+    public void setHistory(TaskHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Loads data into the TaskList if the storage file already exists. Else
+     * creates a new file.
+     */
+    public void load() {
+        acquire();
+        try {
+            if (!file.exists()) {
                 file.createNewFile();
-            } catch (IOException e) {
-                e.printStackTrace();
             }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            release();
         }
     }
 
@@ -45,74 +148,378 @@ public class Storage {
      */
     public void deleteData() {
         file.delete();
+        getHistoryFile().delete();
+    }
+
+    /**
+     * Locks the storage file against other processes until the matching
+     * release, and first brings the TaskList up to date with any changes
+     * other processes have written. Calls may be nested. The lock is kept
+     * after the last release while there are changes that are not written
+     * yet, so other processes wait for a transaction or a batch of deferred
+     * writes to end.
+     */
+    public void acquire() {
+        holdCount++;
+        if (lock != null) {
+            return;
+        }
+        lockFile();
+        try {
+            if (hasChangedOnDisk()) {
+                readChanges();
+                loadHistory();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
-     * Parse the storage file and stores all the tasks listed within it
-     * into TaskList.
+     * Ends a call to acquire, unlocking the storage file if nothing is left
+     * to write.
      */
-    private void loadData() {
-        Scanner sc;
-        assert file.exists() : "Storage file does not exist.";
+    public void release() {
+        assert holdCount > 0 : "The storage file is not acquired.";
+        holdCount--;
+        unlockIfIdle();
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    private void lockFile() {
         try {
-            sc = new Scanner(file);
-        } catch (FileNotFoundException e) {
+            if (lockChannel == null) {
+                lockChannel = FileChannel.open(getLockFile().toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE);
+            }
+            lock = lockChannel.lock();
+        } catch (IOException e) {
+            // Without a lock file, for example in a read-only directory, the file is used unlocked.
             e.printStackTrace();
+        } catch (OverlappingFileLockException e) {
+            // Another Storage in this JVM holds the lock. It shares the TaskList with this one, so
+            // there is no other process to keep out and the file is used unlocked.
+        }
+    }
+
+    private void unlockIfIdle() {
+        if (lock == null || holdCount > 0 || isInTransaction || hasUnsavedChanges) {
             return;
         }
+        try {
+            lock.release();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        lock = null;
+    }
 
-        while (sc.hasNext()) {
-            // Separates a line "E | 0 | EventName | 20/08/2019 2100" to
-            // {"E", "0", "EventName", "20/08/2019 2100"}
-            String[] taskInfo = sc.nextLine().split("\\s*\\|\\s*");
-            addNewTaskToTaskList(taskInfo);
+    /**
+     * Checks whether the storage file has been replaced or changed since it
+     * was last read or written, from its attributes alone.
+     */
+    private boolean hasChangedOnDisk() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return false;
         }
+        return !Objects.equals(attributes.fileKey(), savedFileKey)
+                || attributes.lastModifiedTime().toMillis() != savedModifiedMillis
+                || attributes.size() != savedSize;
+    }
+
+    private void rememberAttributes() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        savedFileKey = attributes.fileKey();
+        savedModifiedMillis = attributes.lastModifiedTime().toMillis();
+        savedSize = attributes.size();
     }
 
     /**
-     * Rewrites the whole storage file based on the current TaskList
-     * contents.
+     * Reads the storage file into the TaskList. If the file is one write
+     * ahead of what was last read or written, the tasks it has left
+     * unchanged are skipped without being read. Only the tasks between the
+     * unchanged ones at the start and at the end are removed from or added
+     * to the TaskList.
+     */
+    private void readChanges() throws IOException {
+        Path path = file.toPath();
+        List<String> readLines = new ArrayList<>();
+        int skippedCount = 0;
+        String sortOrder = savedSortOrder;
+        long fileGeneration = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            BufferedReader headReader = new BufferedReader(Channels.newReader(channel, Charset.defaultCharset()));
+            String headLine = headReader.readLine();
+            long offset = 0;
+            String[] header = headLine == null ? new String[0] : headLine.split(SEPARATOR_REGEX);
+            if (header.length == 5 && header[0].equals(GENERATION_TYPE)) {
+                fileGeneration = Long.parseLong(header[1]);
+                int unchangedCount = Integer.parseInt(header[3]);
+                // The header is plain ASCII, one byte per character.
+                offset = headLine.length() + 1;
+                if (Long.parseLong(header[2]) == generation && unchangedCount > 0
+                        && unchangedCount <= savedTasks.size()) {
+                    skippedCount = unchangedCount;
+                    offset += Long.parseLong(header[4]);
+                }
+            }
+            channel.position(offset);
+            if (skippedCount == 0) {
+                sortOrder = null;
+            }
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, Charset.defaultCharset()));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Separates a line "E | 0 | EventName | 20/08/2019 2100" to
+                // {"E", "0", "EventName", "20/08/2019 2100"}
+                String[] taskInfo = line.split(SEPARATOR_REGEX, 2);
+                if (taskInfo[0].equals(SORT_ORDER_TYPE)) {
+                    sortOrder = taskInfo[1];
+                } else if (isTaskType(taskInfo[0])) {
+                    readLines.add(line);
+                }
+            }
+        } catch (NumberFormatException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        applyChanges(skippedCount, readLines, sortOrder);
+        savedTasks = new ArrayList<>(taskList.getTasks());
+        savedSortOrder = sortOrder;
+        generation = fileGeneration;
+        rememberAttributes();
+    }
+
+    /**
+     * Changes the TaskList, which holds the tasks last read or written, to
+     * hold the skipped tasks followed by the tasks that were read.
+     */
+    private void applyChanges(int skippedCount, List<String> readLines, String sortOrder) {
+        if (!Objects.equals(sortOrder, savedSortOrder)) {
+            taskList.clear();
+            savedTasks = new ArrayList<>();
+        }
+        int start = skippedCount;
+        int oldEnd = savedTasks.size();
+        int newEnd = skippedCount + readLines.size();
+        while (start < oldEnd && start < newEnd
+                && savedTasks.get(start).getStorageStringFormat().equals(readLines.get(start - skippedCount))) {
+            start++;
+        }
+        while (oldEnd > start && newEnd > start && savedTasks.get(oldEnd - 1).getStorageStringFormat()
+                .equals(readLines.get(newEnd - 1 - skippedCount))) {
+            oldEnd--;
+            newEnd--;
+        }
+        for (int i = oldEnd - 1; i >= start; i--) {
+            taskList.deleteTask(i);
+        }
+        for (int i = start; i < newEnd; i++) {
+            taskList.insertTask(Task.fromStorageString(readLines.get(i - skippedCount)), i);
+        }
+        // The tasks were saved in sorted order, so they are not sorted again.
+        taskList.setSortOrder(sortOrder == null ? null : SortOrder.fromString(sortOrder));
+    }
+
+    private static boolean isTaskType(String type) {
+        return type.equals("T") || type.equals("D") || type.equals("E");
+    }
+
+    private void loadHistory() {
+        File historyFile = getHistoryFile();
+        if (history == null || !historyFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(historyFile))) {
+            history.readFrom(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Sets whether every change is written to the file straight away. Turning
+     * it off defers all writes to the next flush, which suits scripts that
+     * change the list many times in a row. Turning it back on flushes any
+     * unsaved changes, and unlike the other writes, reports a failure to
+     * write them, so that a caller deferring writes knows they are not saved.
+     *
+     * @param isAutoSave True to write every change, false to defer writes.
+     * @throws UncheckedIOException If the unsaved changes cannot be written.
+     */
+    public void setAutoSave(boolean isAutoSave) {
+        this.isAutoSave = isAutoSave;
+        if (isAutoSave && hasUnsavedChanges && !isInTransaction) {
+            try {
+                writeDataOrThrow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Records that the TaskList has changed. The whole storage file is
+     * rewritten straight away, unless writes are deferred to flush or a
+     * transaction is open.
      */
     public void updateData() {
+        if (isAutoSave && !isInTransaction) {
+            writeData();
+        } else {
+            hasUnsavedChanges = true;
+        }
+    }
+
+    /**
+     * Rewrites the storage file if there are changes that have not been
+     * written yet. Changes made in an open transaction are not written.
+     */
+    public void flush() {
+        if (hasUnsavedChanges && !isInTransaction) {
+            writeData();
+        }
+    }
+
+    /**
+     * Starts holding back every write until the transaction is committed or
+     * rolled back.
+     */
+    public void beginTransaction() {
+        assert !isInTransaction : "Transactions cannot be nested.";
+        isInTransaction = true;
+        hadUnsavedChangesBeforeTransaction = hasUnsavedChanges;
+    }
+
+    /**
+     * Writes the changes made in the transaction, together with any that
+     * were deferred before it, in one go.
+     */
+    public void commitTransaction() {
+        assert isInTransaction : "There is no open transaction.";
+        isInTransaction = false;
+        if (hasUnsavedChanges) {
+            writeData();
+        }
+        unlockIfIdle();
+    }
+
+    /**
+     * Ends the transaction without writing anything, once its changes have
+     * been reverted in memory.
+     */
+    public void rollbackTransaction() {
+        assert isInTransaction : "There is no open transaction.";
+        isInTransaction = false;
+        hasUnsavedChanges = hadUnsavedChangesBeforeTransaction;
+        unlockIfIdle();
+    }
+
+    /**
+     * Rewrites the whole storage file based on the current TaskList
+     * contents, as the next generation.
+     */
+    private void writeData() {
+        try {
+            writeDataOrThrow();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeDataOrThrow() throws IOException {
+        if (lock == null) {
+            lockFile();
+        }
         try {
-            FileWriter fw = new FileWriter(file.getAbsolutePath());
+            Charset charset = Charset.defaultCharset();
             TaskList taskList = TaskList.newInstance();
+            String sortOrder = taskList.getSortOrder() == null ? null : taskList.getSortOrder().toString();
             StringBuilder sb = new StringBuilder();
+            if (sortOrder != null) {
+                sb.append(SORT_ORDER_TYPE).append(SEPARATOR).append(sortOrder).append("\n");
+            }
+            int unchangedCount = 0;
+            if (Objects.equals(sortOrder, savedSortOrder)) {
+                int maxCount = Math.min(taskList.size(), savedTasks.size());
+                while (unchangedCount < maxCount && taskList.get(unchangedCount) == savedTasks.get(unchangedCount)) {
+                    unchangedCount++;
+                }
+            }
+            // The unchanged part ends after the last unchanged task, and is empty if there is none.
+            int unchangedLength = 0;
             for (int i = 0; i < taskList.size(); i++) {
                 Task task = taskList.get(i);
                 sb.append(task.getStorageStringFormat());
                 sb.append("\n");
+                if (i + 1 == unchangedCount) {
+                    unchangedLength = sb.length();
+                }
             }
-            fw.write(sb.toString());
-            fw.close();
+            byte[] unchangedPart = sb.substring(0, unchangedLength).getBytes(charset);
+            byte[] changedPart = sb.substring(unchangedLength).getBytes(charset);
+            String header = GENERATION_TYPE + SEPARATOR + (generation + 1) + SEPARATOR + generation + SEPARATOR
+                    + unchangedCount + SEPARATOR + unchangedPart.length + "\n";
 
-        } catch (IOException e) {
-            e.printStackTrace();
+            writeAtomically(file, header.getBytes(charset), unchangedPart, changedPart);
+            generation++;
+            savedSortOrder = sortOrder;
+            savedTasks = new ArrayList<>(taskList.getTasks());
+            rememberAttributes();
+            writeHistory();
+            hasUnsavedChanges = false;
+        } finally {
+            unlockIfIdle();
         }
     }
 
-    private void addNewTaskToTaskList(String[] taskInfo) {
-        switch (taskInfo[0]) {
-        case "T":
-            taskList.addNewTodoTask(taskInfo[2],
-                    taskInfo[1].equals(Task.DONE + ""));
-            break;
+    private void writeHistory() throws IOException {
+        if (history == null) {
+            return;
+        }
+        StringWriter writer = new StringWriter();
+        history.writeTo(writer);
+        writeAtomically(getHistoryFile(), writer.toString().getBytes(Charset.defaultCharset()));
+    }
 
-        case "D":
-            taskList.addNewDeadlineTask(taskInfo[2],
-                    taskInfo[3],
-                    taskInfo[1].equals(Task.DONE + ""));
-            break;
+    /**
+     * Replaces the content of the target file by writing a temporary file in
+     * the same directory and moving it over the target.
+     */
+    private static void writeAtomically(File target, byte[]... parts) throws IOException {
+        Path targetPath = target.getAbsoluteFile().toPath();
+        Path tempPath = Files.createTempFile(targetPath.getParent(), target.getName(), ".tmp");
+        try {
+            // The default charset matches the one the files are read with.
+            try (OutputStream out = Files.newOutputStream(tempPath)) {
+                for (byte[] part : parts) {
+                    out.write(part);
+                }
+            }
+            try {
+                Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
 
-        case "E":
-            taskList.addNewEventTask(taskInfo[2],
-                    taskInfo[3],
-                    taskInfo[1].equals(Task.DONE + ""));
-            break;
+    private File getHistoryFile() {
+        return new File(file.getPath() + HISTORY_SUFFIX);
+    }
 
-        default:
-            break;
-        }
+    private File getLockFile() {
+        return new File(file.getPath() + LOCK_SUFFIX);
     }
 
 }
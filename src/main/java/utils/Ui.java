@@ -1,20 +1,23 @@
 package utils;
 
+import command.CommandResult;
 import task.Task;
 
 import java.util.List;
 
 
 /**
- * A Ui class to manage all of Duke's output. It functions with a singleton
- * model so that at any point in time, only one copy of the output String is
- * being built.
+ * A Ui class to manage all of Duke's output. The print methods record what
+ * is to be shown in a CommandResult, which is only turned into text by
+ * render, so that at any point in time, only one result is being built.
  */
 public class Ui {
     public static final String LIST_ACTION_TITLE =
             "Here are the tasks in your list:\n";
     public static final String FIND_ACTION_TITLE =
             "Here are the matching tasks in your list:\n";
+    public static final String UPCOMING_ACTION_TITLE =
+            "Here are your upcoming deadlines and events:\n";
     private static final String SAD_EMOTICON = "\u2639"; // "☹"
     private static final String LOGO =
             " ____        _        \n"
@@ -26,7 +29,13 @@ public class Ui {
             "List of commands:\n\n"
                     + "bye:\nExits from the program\n\n"
 
-                    + "list:\nList all existing tasks\n\n"
+                    + "list --page [p] --size [s]:\nList all existing tasks. Long lists are shown one page "
+                    + "at a time, optional arguments pick the page and the number of tasks per page\n\n"
+
+                    + "next / prev:\nShows the next or previous page of the last list or find\n\n"
+
+                    + "next [k]:\nShows the k earliest deadlines and events that are not done, "
+                    + "without sorting the list\n\n"
 
                     + "help:\nPrints the list of commands\n\n"
 
@@ -44,48 +53,75 @@ public class Ui {
                     + "Adds a new Deadline task with the deadline in the given format.\n\n"
 
                     + "undo:\n"
-                    + "Undoes the most recent action.\n\n"
+                    + "Undoes the most recent action. Earlier actions, even from before a restart, "
+                    + "can be undone one at a time.\n\n"
+
+                    + "redo:\n"
+                    + "Redoes the most recently undone action.\n\n"
+
+                    + "begin / commit / rollback:\n"
+                    + "Starts a transaction, then saves all its changes at once or discards them. "
+                    + "A committed transaction is undone as one action. Exiting rolls back an open "
+                    + "transaction.\n\n"
 
-                    + "find [keyword] :\n"
-                    + "Returns a list of task with names containing the \"keyword\".\n\n"
+                    + "find [keyword] --page [p] --size [s]:\n"
+                    + "Returns a list of task with names containing the \"keyword\", ignoring case.\n\n"
 
                     + "sort [category] r:\n"
                     + "Sorts and returns the list of tasks. Category can be one of \"name\", "
                     + "\"deadline\", \"type\", \"status\"."
-                    + "\nOptional argument \"r\" sorts list in reverse order.\n\n";
+                    + "\nOptional argument \"r\" sorts list in reverse order.\n\n"
+
+                    + "sort [category1][:r] [category2][:r] ...:\n"
+                    + "Sorts by the first category, then by the next one where tasks tie. "
+                    + "A category followed by \":r\" is sorted in reverse order, "
+                    + "e.g. \"sort status deadline name:r\". The list is kept in this order "
+                    + "as tasks are added or marked as done.\n\n"
+
+                    + "sort off:\n"
+                    + "Stops keeping the list sorted. New tasks are added to the end.\n\n"
+
+                    + "Abbreviations:\n"
+                    + "Any command can be shortened to a prefix that only it starts with, e.g. \"dea\" "
+                    + "for \"deadline\", except \"bye\", \"undo\", \"redo\" and \"rollback\", which must be "
+                    + "typed in full. \"dl\", \"ev\" and \"del\" are short for \"deadline\", "
+                    + "\"event\" and \"delete\".\n\n";
 
 
-    private StringBuilder outputBuilder;
+    private static final String WELCOME_MESSAGE = "Hello! I'm Duke\n"
+            + "What can I do for you?\n"
+            + "Enter \"help\" for a list of commands.\n";
+
+
+    private CommandResult result;
 
 
     /**
-     * Initializes StringBuilder on construction.
+     * Initializes an empty CommandResult on construction.
      */
     public Ui() {
-        outputBuilder = new StringBuilder();
+        result = new CommandResult();
     }
 
     /**
      * Prints a hello message when program first initializes.
      */
     public void printWelcomeMessage() {
-        outputBuilder.append("Hello! I'm Duke\n");
-        outputBuilder.append("What can I do for you?\n");
-        outputBuilder.append("Enter \"help\" for a list of commands.\n");
+        result.addMessage(WELCOME_MESSAGE);
     }
 
     /**
      * Prints a list of actions that can be used.
      */
     public void printHelpMessage() {
-        outputBuilder.append(HELP_MESSAGE);
+        result.addMessage(HELP_MESSAGE);
     }
 
     /**
      * Prints a message upon exit of the program.
      */
     public void printByeMessage() {
-        outputBuilder.append("Bye. Hope to see you again soon!\n");
+        result.addMessage("Bye. Hope to see you again soon!\n");
     }
 
 
@@ -93,7 +129,7 @@ public class Ui {
      * Prints a message to indicate that is no existing task.
      */
     public void printEmptyTaskListMessage() {
-        outputBuilder.append("You have no task at the moment.\n");
+        result.addMessage("You have no task at the moment.\n");
     }
 
     /**
@@ -104,11 +140,29 @@ public class Ui {
      */
     public void printTaskList(List<Task> taskList, String title) {
         assert taskList != null : "Task list not found and cannot be printed.";
-        outputBuilder.append(title);
-        for (int i = 0; i < taskList.size(); i++) {
-            outputBuilder.append(String.format("%d.", i + 1));
-            outputBuilder.append(String.format("%s\n", taskList.get(i)));
-        }
+        result.addTaskList(title, taskList);
+    }
+
+    /**
+     * Prints a message to indicate that there is no upcoming deadline or event.
+     */
+    public void printNoUpcomingTaskMessage() {
+        result.addMessage("You have no upcoming deadlines or events.\n");
+    }
+
+    /**
+     * Prints one page of tasks, numbered by their position in the whole list,
+     * followed by the page position.
+     *
+     * @param page       The tasks on the page.
+     * @param offset     The position of the first task on the page in the whole list.
+     * @param pageNumber The number of the page, starting from 1.
+     * @param pageCount  The total number of pages.
+     * @param title      The preamble to be printed before listing the tasks.
+     */
+    public void printTaskPage(List<Task> page, int offset, int pageNumber, int pageCount, String title) {
+        assert page != null : "Task page not found and cannot be printed.";
+        result.addTaskPage(title, page, offset, pageNumber, pageCount);
     }
 
     /**
@@ -118,8 +172,8 @@ public class Ui {
      */
     public void printMarkedAsDoneMessage(Task task) {
         assert task != null : "Done task not found and cannot be printed.";
-        outputBuilder.append("Nice! I've marked this task as done:\n");
-        outputBuilder.append(String.format("%s\n", task));
+        result.addMessage("Nice! I've marked this task as done:\n");
+        result.addTask(task);
     }
 
     /**
@@ -129,22 +183,62 @@ public class Ui {
      */
     public void printMarkedAsNotDoneMessage(Task task) {
         assert task != null : "Task not found and cannot be printed.";
-        outputBuilder.append("I've marked this task as not done:\n");
-        outputBuilder.append(String.format("%s\n", task));
+        result.addMessage("I've marked this task as not done:\n");
+        result.addTask(task);
     }
 
     /**
      * Prints a message to acknowledging the undo-ing of previous action.
      */
     public void printUndoMessage() {
-        outputBuilder.append("Undo-ing previous action.\n");
+        result.addMessage("Undo-ing previous action.\n");
     }
 
     /**
      * Prints a message to explain why undo is not allowed.
      */
     public void printUndoNotAllowedMessage() {
-        outputBuilder.append("Undo not allowed as there is no earlier action.\n");
+        result.addMessage("Undo not allowed as there is no earlier action.\n");
+    }
+
+    /**
+     * Prints a message that a transaction has started.
+     */
+    public void printTransactionBegunMessage() {
+        result.addMessage("Transaction started. Changes are saved on \"commit\" and discarded on \"rollback\".\n");
+    }
+
+    /**
+     * Prints a message that a transaction has been committed.
+     *
+     * @param changeCount The number of changes saved.
+     */
+    public void printTransactionCommittedMessage(int changeCount) {
+        result.addMessage(String.format("Transaction committed. Saved %d changes, which undo as one.\n",
+                changeCount));
+    }
+
+    /**
+     * Prints a message that a transaction has been rolled back.
+     *
+     * @param changeCount The number of changes discarded.
+     */
+    public void printTransactionRolledBackMessage(int changeCount) {
+        result.addMessage(String.format("Transaction rolled back. Discarded %d changes.\n", changeCount));
+    }
+
+    /**
+     * Prints a message to acknowledging the redo-ing of an undone action.
+     */
+    public void printRedoMessage() {
+        result.addMessage("Redo-ing undone action.\n");
+    }
+
+    /**
+     * Prints a message to explain why redo is not allowed.
+     */
+    public void printRedoNotAllowedMessage() {
+        result.addMessage("Redo not allowed as there is no undone action.\n");
     }
 
     /**
@@ -156,13 +250,9 @@ public class Ui {
      */
     public void printTaskDeletedMessage(Task task, int taskListSize) {
         assert task != null : "Deleted task not found and cannot be printed.";
-        outputBuilder.append("Noted. I've removed this task:\n");
-        outputBuilder.append(String.format("%s\n", task));
-        printListSummary(taskListSize);
-    }
-
-    private void printListSummary(int taskListSize) {
-        outputBuilder.append(String.format("Now you have %d tasks in the list.\n", taskListSize));
+        result.addMessage("Noted. I've removed this task:\n");
+        result.addTask(task);
+        result.addTaskCount(taskListSize);
     }
 
     /**
@@ -174,13 +264,27 @@ public class Ui {
      */
     public void printTaskAddedMessage(Task task, int taskListSize) {
         assert task != null : "Added task not found and cannot be printed.";
-        outputBuilder.append("Got it. I've added this task:\n");
-        outputBuilder.append(String.format("%s\n", task));
-        printListSummary(taskListSize);
+        result.addMessage("Got it. I've added this task:\n");
+        result.addTask(task);
+        result.addTaskCount(taskListSize);
     }
 
-    public void printListSortedMessage() {
-        outputBuilder.append("Your list has been sorted.\n");
+    /**
+     * Prints a message that the list has been sorted and will be kept in
+     * that order.
+     *
+     * @param sortOrder The order the list has been sorted in.
+     */
+    public void printListSortedMessage(String sortOrder) {
+        result.addMessage("Your list has been sorted.\n");
+        result.addMessage("New tasks will be kept in \"" + sortOrder + "\" order until you enter \"sort off\".\n");
+    }
+
+    /**
+     * Prints a message that the list is no longer kept sorted.
+     */
+    public void printSortOffMessage() {
+        result.addMessage("Your list will no longer be kept sorted. New tasks will be added to the end.\n");
     }
 
     public String buildIncorrectArgumentsMessage() {
@@ -229,17 +333,126 @@ public class Ui {
 
 
 
+    public String buildInvalidUpcomingCountMessage() {
+        return String.format("%s OOPS!!! Number of upcoming tasks must be a positive number.\n",
+                Ui.SAD_EMOTICON);
+    }
+
+    public String buildInvalidPageOptionMessage() {
+        return String.format("%s OOPS!!! Page number and page size must be positive numbers.\n",
+                Ui.SAD_EMOTICON);
+    }
+
+    public String buildInvalidPageNumberMessage(int pageCount) {
+        return String.format("%s OOPS!!! Page number must be a number from %d to %d.\n",
+                Ui.SAD_EMOTICON,
+                1,
+                pageCount);
+    }
+
+    public String buildNoPagedResultMessage() {
+        return String.format("%s OOPS!!! There is nothing to page through. Use \"list\" or \"find\" first.\n",
+                Ui.SAD_EMOTICON);
+    }
+
+    public String buildNoMorePagesMessage() {
+        return String.format("%s OOPS!!! There are no more pages in that direction.\n",
+                Ui.SAD_EMOTICON);
+    }
+
+    public String buildTransactionOpenMessage() {
+        return String.format("%s OOPS!!! A transaction is open. Use \"commit\" or \"rollback\" first.\n",
+                Ui.SAD_EMOTICON);
+    }
+
+    public String buildNoTransactionMessage() {
+        return String.format("%s OOPS!!! There is no open transaction. Use \"begin\" to start one.\n",
+                Ui.SAD_EMOTICON);
+    }
+
+    public String buildAmbiguousCommandMessage(List<String> commandNames) {
+        return String.format("%s OOPS!!! That could mean any of: %s. Type more of the command.\n",
+                Ui.SAD_EMOTICON,
+                String.join(", ", commandNames));
+    }
+
+    /**
+     * Records an error message, usually one made by a build method.
+     *
+     * @param message The error message.
+     */
     public void appendMessage(String message) {
-        outputBuilder.append(message);
+        result.addError(message);
     }
 
-    public void resetOutputBuilder() {
-        outputBuilder = new StringBuilder();
+    /**
+     * Returns everything printed since the last call and starts a new
+     * CommandResult.
+     *
+     * @return The result of the command that has just been run.
+     */
+    public CommandResult takeResult() {
+        CommandResult output = result;
+        result = new CommandResult();
+        return output;
     }
 
     public String getOutputAndClearBuilder() {
-        String output = outputBuilder.toString();
-        resetOutputBuilder();
-        return output;
+        return render(takeResult());
+    }
+
+    /**
+     * Formats a CommandResult as the text shown to the user.
+     *
+     * @param commandResult The result to be formatted.
+     * @return The text of the result.
+     */
+    public String render(CommandResult commandResult) {
+        StringBuilder outputBuilder = new StringBuilder();
+        render(commandResult, outputBuilder);
+        return outputBuilder.toString();
+    }
+
+    /**
+     * Formats a CommandResult as the text shown to the user and appends it
+     * to the given builder, so that many results can be rendered into one
+     * buffer.
+     *
+     * @param commandResult The result to be formatted.
+     * @param outputBuilder The builder the text is appended to.
+     */
+    public void render(CommandResult commandResult, StringBuilder outputBuilder) {
+        for (CommandResult.Entry entry : commandResult.getEntries()) {
+            switch (entry.getKind()) {
+            case TASK:
+                outputBuilder.append(entry.getTask()).append('\n');
+                break;
+            case TASK_COUNT:
+                outputBuilder.append("Now you have ").append(entry.getNumber()).append(" tasks in the list.\n");
+                break;
+            case TASK_LIST:
+                renderTasks(entry.getText(), entry.getTasks(), 0, outputBuilder);
+                break;
+            case TASK_PAGE:
+                renderTasks(entry.getText(), entry.getTasks(), entry.getNumber(), outputBuilder);
+                outputBuilder.append(String.format("Page %d of %d.", entry.getPageNumber(), entry.getPageCount()));
+                if (entry.getPageCount() > 1) {
+                    outputBuilder.append(" Enter \"next\" or \"prev\" to see other pages.");
+                }
+                outputBuilder.append('\n');
+                break;
+            default:
+                outputBuilder.append(entry.getText());
+                break;
+            }
+        }
+    }
+
+    private void renderTasks(String title, List<Task> tasks, int offset, StringBuilder outputBuilder) {
+        outputBuilder.append(title);
+        for (int i = 0; i < tasks.size(); i++) {
+            outputBuilder.append(offset + i + 1).append('.');
+            outputBuilder.append(tasks.get(i)).append('\n');
+        }
     }
 }
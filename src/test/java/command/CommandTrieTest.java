@@ -0,0 +1,71 @@
+package command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CommandTrieTest {
+
+    private final CommandTrie trie;
+
+    CommandTrieTest() {
+        trie = new CommandTrie();
+        for (String name : new String[] {"deadline", "delete", "do", "done", "event", "list"}) {
+            trie.put(name, () -> {});
+        }
+        trie.putAlias("dl", "deadline");
+        trie.putAlias("del", "delete");
+        trie.putExact("undo", () -> {});
+        trie.putAlias("z", "undo");
+    }
+
+    private String resolve(String word) {
+        return trie.resolve(word, 0, word.length());
+    }
+
+    @Test
+    public void resolve_alias_aliasedCommand() {
+        assertEquals("deadline", resolve("dl"));
+        assertEquals("delete", resolve("del"));
+    }
+
+    @Test
+    public void resolve_uniquePrefix_command() {
+        assertEquals("deadline", resolve("dea"));
+        assertEquals("event", resolve("e"));
+        assertEquals("list", resolve("li"));
+    }
+
+    @Test
+    public void resolve_exactNameThatIsAlsoPrefix_exactName() {
+        assertEquals("do", resolve("do"));
+        assertEquals("done", resolve("don"));
+    }
+
+    @Test
+    public void resolve_ambiguousOrUnknown_nullWithCandidates() {
+        assertNull(resolve("d"));
+        assertNull(resolve("x"));
+        assertNull(resolve(""));
+        assertEquals(Arrays.asList("deadline", "delete", "do", "done"), trie.getCandidates("d", 0, 1));
+        assertEquals(Collections.emptyList(), trie.getCandidates("x", 0, 1));
+    }
+
+    @Test
+    public void resolve_prefixOfExactCommand_nullWithCandidate() {
+        assertEquals("undo", resolve("undo"));
+        assertEquals("undo", resolve("z"));
+        assertNull(resolve("u"));
+        assertNull(resolve("und"));
+        assertEquals(Collections.singletonList("undo"), trie.getCandidates("u", 0, 1));
+    }
+
+    @Test
+    public void resolve_wordInsideText_onlySpanUsed() {
+        assertEquals("event", trie.resolve("  ev x /at y", 2, 4));
+    }
+}
@@ -0,0 +1,130 @@
+package controller;
+
+import main.Duke;
+import utils.StorageFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A load-test client for ApiServer. It starts a server on the loopback
+ * address with a temporary task list, then sends a mix of requests from a
+ * number of concurrent clients: mostly pages of the list, some finds and
+ * some new tasks, which are saved like any other command. It reports the
+ * throughput and the median and 99th percentile latencies. Run the main
+ * method directly, optionally passing the number of clients and the number
+ * of requests per client; it is not part of the test suite.
+ */
+public class ApiLoadBenchmark {
+    private static final int DEFAULT_CLIENTS = 16;
+    private static final int DEFAULT_REQUESTS_PER_CLIENT = 2_000;
+    private static final int INITIAL_TASKS = 500;
+    private static final int WARMUP_REQUESTS = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REQUESTS_PER_CLIENT;
+        File storage = StorageFiles.createStorageFile("duke-load");
+
+        ApiServer server = new ApiServer(new Duke(storage.getAbsolutePath()), 0);
+        server.start();
+        String baseUrl = "http://localhost:" + server.getPort();
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(clients)).build();
+        try {
+            for (int i = 0; i < INITIAL_TASKS; i++) {
+                send(client, newTaskRequest(baseUrl, i));
+            }
+            for (int i = 0; i < WARMUP_REQUESTS; i++) {
+                send(client, nextRequest(baseUrl, i));
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            List<Future<long[]>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                results.add(pool.submit(() -> runClient(client, baseUrl, requestsPerClient)));
+            }
+            long[] latencies = new long[clients * requestsPerClient];
+            int filled = 0;
+            for (Future<long[]> result : results) {
+                long[] clientLatencies = result.get();
+                System.arraycopy(clientLatencies, 0, latencies, filled, clientLatencies.length);
+                filled += clientLatencies.length;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+
+            Arrays.sort(latencies);
+            System.out.printf("%d clients x %d requests (virtual threads: %s)%n", clients, requestsPerClient,
+                    hasVirtualThreads() ? "yes" : "no, cached pool");
+            System.out.printf("throughput %10.0f requests/s%n", latencies.length / seconds);
+            System.out.printf("p50        %10.3f ms%n", latencies[latencies.length / 2] / 1e6);
+            System.out.printf("p99        %10.3f ms%n", latencies[(int) (latencies.length * 0.99)] / 1e6);
+        } finally {
+            server.stop();
+            StorageFiles.deleteStorageFile(storage);
+            System.exit(0);
+        }
+    }
+
+    private static long[] runClient(HttpClient client, String baseUrl, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = nextRequest(baseUrl, ThreadLocalRandom.current().nextInt());
+            long start = System.nanoTime();
+            send(client, request);
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    /**
+     * Picks a request: 80% list pages, 10% finds and 10% new tasks.
+     */
+    private static HttpRequest nextRequest(String baseUrl, int seed) {
+        int choice = Math.floorMod(seed, 10);
+        if (choice == 0) {
+            return newTaskRequest(baseUrl, seed);
+        }
+        if (choice == 1) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/find?q=task+" + Math.floorMod(seed, 100)))
+                    .GET().build();
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks?page=" + (Math.floorMod(seed, 5) + 1)
+                + "&size=20")).GET().build();
+    }
+
+    private static HttpRequest newTaskRequest(String baseUrl, int seed) {
+        String body = String.format("{\"type\": \"deadline\", \"name\": \"task %d\", \"time\": \"%02d/08/2019 2100\"}",
+                seed, Math.floorMod(seed, 28) + 1);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static void send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Request failed: " + request.uri() + " " + response.body());
+        }
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package controller;
+
+import main.Duke;
+import org.junit.jupiter.api.Test;
+import task.TaskList;
+import utils.StorageFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApiServerTest {
+
+    private static HttpResponse<String> send(HttpClient client, String method, String url, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void endpoints_addListDoneDeleteUndo_jsonResponses() throws IOException, InterruptedException {
+        TaskList.newInstance().clear();
+        File file = StorageFiles.createStorageFile();
+        ApiServer server = new ApiServer(new Duke(file.getAbsolutePath()), 0);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        String tasksUrl = "http://localhost:" + server.getPort() + "/tasks";
+        try {
+            HttpResponse<String> added = send(client, "POST", tasksUrl,
+                    "{\"type\": \"deadline\", \"name\": \"essay \\\"draft\\\"\", \"time\": \"01/02/2020 1800\"}");
+            assertEquals(200, added.statusCode());
+            assertTrue(added.body().contains("\"name\":\"essay \\\"draft\\\"\""));
+            assertTrue(added.body().contains("\"taskCount\":1"));
+
+            assertEquals(200, send(client, "POST", tasksUrl, "{\"name\": \"read book\"}").statusCode());
+            assertEquals(200, send(client, "POST", tasksUrl + "/2/done", null).statusCode());
+
+            HttpResponse<String> page = send(client, "GET", tasksUrl + "?page=2&size=1", null);
+            assertEquals(200, page.statusCode());
+            assertTrue(page.body().contains("{\"index\":2,\"type\":\"todo\",\"name\":\"read book\","
+                    + "\"time\":\"\",\"done\":true}"));
+            assertTrue(page.body().contains("\"pageNumber\":2,\"pageCount\":2"));
+
+            HttpResponse<String> found = send(client, "GET", tasksUrl + "/find?q=ESSAY", null);
+            assertTrue(found.body().contains("\"index\":1,\"type\":\"deadline\""));
+
+            assertEquals(200, send(client, "DELETE", tasksUrl + "/1", null).statusCode());
+            assertEquals(200, send(client, "POST", "http://localhost:" + server.getPort() + "/undo", null)
+                    .statusCode());
+            assertEquals(2, TaskList.newInstance().size());
+
+            HttpResponse<String> invalid = send(client, "POST", tasksUrl, "{\"type\": \"event\", \"name\": \"x\"}");
+            assertEquals(400, invalid.statusCode());
+            assertTrue(invalid.body().startsWith("{\"ok\":false"));
+            assertEquals(400, send(client, "DELETE", tasksUrl + "/9", null).statusCode());
+            assertEquals(404, send(client, "GET", tasksUrl + "/1/other", null).statusCode());
+        } finally {
+            server.stop();
+            StorageFiles.deleteStorageFile(file);
+            TaskList.newInstance().clear();
+        }
+    }
+
+    @Test
+    public void endpoints_commandKeywordsInValues_badRequest() throws IOException, InterruptedException {
+        TaskList.newInstance().clear();
+        File file = StorageFiles.createStorageFile();
+        ApiServer server = new ApiServer(new Duke(file.getAbsolutePath()), 0);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        String tasksUrl = "http://localhost:" + server.getPort() + "/tasks";
+        try {
+            assertEquals(400, send(client, "POST", tasksUrl,
+                    "{\"type\": \"deadline\", \"name\": \"milk /by 01/01/2030 0900\", \"time\": \"garbage\"}")
+                    .statusCode());
+            assertEquals(400, send(client, "POST", tasksUrl,
+                    "{\"type\": \"event\", \"name\": \"party\", \"time\": \"home /at 01/01/2030 0900\"}")
+                    .statusCode());
+            assertEquals(400, send(client, "POST", tasksUrl, "{\"name\": \"read --size 1\"}").statusCode());
+            assertEquals(0, TaskList.newInstance().size());
+
+            assertEquals(200, send(client, "POST", tasksUrl, "{\"name\": \"read book\"}").statusCode());
+            assertEquals(400, send(client, "GET", tasksUrl + "/find?q=book%20--page%209&page=1", null)
+                    .statusCode());
+            assertEquals(200, send(client, "GET", tasksUrl + "/find?q=book&page=1", null).statusCode());
+        } finally {
+            server.stop();
+            StorageFiles.deleteStorageFile(file);
+            TaskList.newInstance().clear();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package controller;
+
+import main.Duke;
+import org.junit.jupiter.api.Test;
+import task.TaskList;
+import utils.StorageFiles;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchRunnerTest {
+
+    @Test
+    public void run_scriptWithBye_stopsAtByeAndSavesOnce() throws IOException {
+        TaskList.newInstance().clear();
+        File file = StorageFiles.createStorageFile();
+        Duke duke = new Duke(file.getAbsolutePath());
+        String script = "todo read book\n\ntodo write essay\ndone 1\nbye\ntodo never run\n";
+        StringWriter output = new StringWriter();
+
+        int commandCount = new BatchRunner(duke, BatchRunner.NO_CHECKPOINTS)
+                .run(new BufferedReader(new StringReader(script)), output);
+
+        assertEquals(4, commandCount);
+        assertTrue(output.toString().contains("write essay"));
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals(List.of("G | 1 | 0 | 0 | 0", "T | 1 | read book", "T | 0 | write essay"), lines);
+        StorageFiles.deleteStorageFile(file);
+        TaskList.newInstance().clear();
+    }
+}
@@ -0,0 +1,80 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandDispatcherTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    /**
+     * Stands in for the thread of the interface: the test thread runs the
+     * tasks handed to it, like Platform.runLater would on the JavaFX thread.
+     */
+    private final LinkedBlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+
+    private void runUiTasksUntil(List<String> responses, int count) throws InterruptedException {
+        while (responses.size() < count) {
+            Runnable task = uiTasks.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertTrue(task != null);
+            task.run();
+        }
+    }
+
+    @Test
+    public void dispatch_severalCommands_responsesInOrderAndBusyToggled() throws InterruptedException {
+        CommandDispatcher dispatcher = new CommandDispatcher(input -> {
+            if (input.startsWith("fail")) {
+                throw new IllegalStateException("broken");
+            }
+            return input.trim().toUpperCase();
+        }, uiTasks::add, CommandDispatcher.DEFAULT_MAX_PENDING);
+        List<Boolean> busyChanges = new ArrayList<>();
+        dispatcher.setBusyListener(busyChanges::add);
+        List<String> responses = new ArrayList<>();
+
+        for (String input : List.of("list\n", "todo a\n", "fail\n", "done 1\n")) {
+            assertTrue(dispatcher.dispatch(input, responses::add));
+        }
+        runUiTasksUntil(responses, 4);
+
+        assertEquals(List.of("LIST", "TODO A", String.format(CommandDispatcher.FAILURE_MESSAGE, "broken"), "DONE 1"),
+                responses);
+        assertEquals(List.of(true, false), busyChanges);
+        assertEquals(0, dispatcher.getPendingCount());
+        dispatcher.close();
+    }
+
+    @Test
+    public void dispatch_tooManyPending_refusedUntilAnswered() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CommandDispatcher dispatcher = new CommandDispatcher(input -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return input;
+        }, uiTasks::add, 2);
+        List<String> responses = new ArrayList<>();
+
+        assertTrue(dispatcher.dispatch("a", responses::add));
+        assertTrue(dispatcher.dispatch("b", responses::add));
+        assertFalse(dispatcher.dispatch("c", responses::add));
+
+        release.countDown();
+        runUiTasksUntil(responses, 2);
+        assertTrue(dispatcher.dispatch("c", responses::add));
+        runUiTasksUntil(responses, 3);
+        assertEquals(List.of("a", "b", "c"), responses);
+        dispatcher.close();
+    }
+}
@@ -0,0 +1,107 @@
+package controller;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.layout.HBox;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures how many dialog boxes per second can be created on the JavaFX
+ * application thread: by parsing the FXML layout DialogBox was once loaded
+ * from, kept in the test resources for this comparison, against building
+ * DialogBox in code as it is now. It needs JavaFX and a display; without
+ * them it reports that it is unavailable. Run the main method directly,
+ * optionally passing the number of dialog boxes per round; it is not part of
+ * the test suite.
+ */
+public class DialogBoxBenchmark {
+    private static final int DEFAULT_BOXES = 5_000;
+    private static final int ROUNDS = 5;
+    private static final long TIMEOUT_SECONDS = 120;
+    private static final String FXML_LAYOUT = "/view/DialogBox.fxml";
+    private static final String TEXT = "Got it. I've added this task:\n  [T][\u2718] read book\n"
+            + "Now you have 1 task in the list.";
+
+    public static void main(String[] args) throws Exception {
+        int boxes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BOXES;
+        try {
+            Platform.startup(() -> {});
+        } catch (RuntimeException | UnsatisfiedLinkError e) {
+            System.out.println("JavaFX is unavailable: " + e);
+            return;
+        }
+        Image image = new Image(DialogBoxBenchmark.class.getResourceAsStream("/images/DaDuke.png"));
+        URL layout = DialogBoxBenchmark.class.getResource(FXML_LAYOUT);
+
+        System.out.printf("%d dialog boxes per round, best of %d rounds%n", boxes, ROUNDS);
+        System.out.printf("%-8s %16s%n", "build", "boxes per second");
+        System.out.printf("%-8s %16.0f%n", "fxml", measure(boxes, () -> loadFromFxml(layout)));
+        System.out.printf("%-8s %16.0f%n", "code", measure(boxes, () -> DialogBox.getDukeDialog(TEXT, image)));
+        Platform.exit();
+    }
+
+    /**
+     * Returns the best rate at which the given factory creates dialog boxes
+     * on the JavaFX application thread, in boxes per second.
+     */
+    private static double measure(int boxes, BoxFactory factory) throws Exception {
+        double bestRate = 0;
+        // The first round warms up the JIT and is not counted.
+        for (int round = 0; round <= ROUNDS; round++) {
+            long nanos = runOnFxThread(() -> {
+                long start = System.nanoTime();
+                for (int i = 0; i < boxes; i++) {
+                    factory.create();
+                }
+                return System.nanoTime() - start;
+            });
+            if (round > 0) {
+                bestRate = Math.max(bestRate, boxes * 1e9 / nanos);
+            }
+        }
+        return bestRate;
+    }
+
+    private static Node loadFromFxml(URL layout) throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(layout);
+        fxmlLoader.setRoot(new HBox());
+        return fxmlLoader.load();
+    }
+
+    private static long runOnFxThread(TimedTask task) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Long> result = new AtomicReference<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Platform.runLater(() -> {
+            try {
+                result.set(task.run());
+            } catch (Exception e) {
+                failure.set(e);
+            } finally {
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for the JavaFX application thread");
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return result.get();
+    }
+
+    private interface BoxFactory {
+        Node create() throws IOException;
+    }
+
+    private interface TimedTask {
+        long run() throws Exception;
+    }
+}
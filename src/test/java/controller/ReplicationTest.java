@@ -0,0 +1,129 @@
+package controller;
+
+import main.Duke;
+import org.junit.jupiter.api.Test;
+import task.Task;
+import task.TaskList;
+import utils.StorageFiles;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplicationTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private static List<String> toStorageStrings(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.getStorageStringFormat());
+        }
+        return lines;
+    }
+
+    /**
+     * Waits for the follower to have the same tasks as the primary. The
+     * records reach the replication log asynchronously, so its head offset
+     * may still be behind the primary's list when this is called.
+     */
+    private static void awaitSameTasks(ReplicaFollower follower, TaskList taskList) throws InterruptedException {
+        List<String> expected = toStorageStrings(taskList.getTasks());
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!expected.equals(toStorageStrings(follower.getSnapshot().getTasks()))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, toStorageStrings(follower.getSnapshot().getTasks()));
+    }
+
+    @Test
+    public void follower_primaryChanges_sameTasksAndReadOnly() throws IOException, InterruptedException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        File file = StorageFiles.createStorageFile();
+        Duke duke = new Duke(file.getAbsolutePath());
+        duke.execute("todo read book");
+        ReplicationServer server = new ReplicationServer(0);
+        server.start();
+        ReplicaFollower follower = new ReplicaFollower(server.getPort());
+        try {
+            awaitSameTasks(follower, taskList);
+            assertEquals(1, follower.getSnapshotCount());
+
+            duke.execute("todo write essay");
+            duke.execute("deadline submit essay /by 02/02/2020 1800");
+            duke.execute("done 1");
+            duke.execute("delete 2");
+            duke.execute("sort");
+            duke.execute("todo return book");
+            awaitSameTasks(follower, taskList);
+            assertEquals(server.getHeadOffset(), follower.getAppliedOffset());
+            assertEquals(0, follower.getLagRecords());
+            assertEquals(1, follower.getSnapshotCount());
+
+            assertTrue(follower.query("todo from replica").hasError());
+            assertFalse(follower.query("list").hasError());
+            assertEquals(3, taskList.size());
+        } finally {
+            follower.close();
+            server.stop();
+            taskList.clear();
+            StorageFiles.deleteStorageFile(file);
+        }
+    }
+
+    @Test
+    public void serveFollower_knownOrUnknownOffset_recordsOrSnapshot() throws IOException, InterruptedException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        File file = StorageFiles.createStorageFile();
+        Duke duke = new Duke(file.getAbsolutePath());
+        ReplicationServer server = new ReplicationServer(0);
+        server.start();
+        try {
+            duke.execute("todo read book");
+            duke.execute("todo write essay");
+            duke.execute("done 2");
+            duke.execute("delete 1");
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (server.getHeadOffset() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, server.getHeadOffset());
+
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                BufferedReader in = follow(socket, "F | 0 | 0");
+                assertTrue(in.readLine().startsWith("S | " + server.getEpoch() + " | "));
+            }
+
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                BufferedReader in = follow(socket, "F | " + server.getEpoch() + " | 2");
+                assertTrue(in.readLine().startsWith("C | 3 | "));
+                assertTrue(in.readLine().startsWith("R | 4 | "));
+            }
+        } finally {
+            server.stop();
+            taskList.clear();
+            StorageFiles.deleteStorageFile(file);
+        }
+    }
+
+    private static BufferedReader follow(Socket socket, String request) throws IOException {
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        out.write(request + "\n");
+        out.flush();
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+}
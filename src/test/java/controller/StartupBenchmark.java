@@ -0,0 +1,110 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts fresh JVMs on the current class path and measures the wall-clock
+ * time until Duke is ready for input: the first prompt of the terminal Repl,
+ * against the first window of the GUI started through Launcher. The GUI
+ * needs JavaFX on the class path and a display; without them it is
+ * reported as unavailable. Run the main method directly, optionally passing
+ * the number of runs; it is not part of the test suite.
+ */
+public class StartupBenchmark {
+    private static final int DEFAULT_RUNS = 5;
+    private static final long TIMEOUT_SECONDS = 60;
+    /**
+     * The GUI classes are named rather than referenced, so that this
+     * benchmark runs without JavaFX on the class path.
+     */
+    private static final String GUI_LAUNCHER = "controller.Launcher";
+    private static final String GUI_STARTUP_REPORT = "-Dduke.startupReport=true";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        File storage = File.createTempFile("duke-startup", ".txt");
+        storage.deleteOnExit();
+        String javaPath = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+
+        List<String> replCommand = Arrays.asList(javaPath, "-cp", classPath, Repl.class.getName(),
+                "--storage", storage.getAbsolutePath());
+        List<String> guiCommand = Arrays.asList(javaPath, "-cp", classPath, GUI_STARTUP_REPORT, GUI_LAUNCHER);
+
+        System.out.printf("%d runs%n", runs);
+        System.out.printf("%-10s %16s%n", "mode", "median ready ms");
+        System.out.printf("%-10s %16s%n", "terminal", format(measure(replCommand, runs, false)));
+        System.out.printf("%-10s %16s%n", "gui", format(measure(guiCommand, runs, true)));
+    }
+
+    /**
+     * Returns the median time in milliseconds from starting the command to
+     * it being ready, or -1 if it never became ready.
+     */
+    private static long measure(List<String> command, int runs, boolean isGui)
+            throws IOException, InterruptedException {
+        List<Long> readyMillis = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            long millis = measureOnce(command, isGui);
+            if (millis < 0) {
+                return -1;
+            }
+            readyMillis.add(millis);
+        }
+        readyMillis.sort(Long::compare);
+        return readyMillis.get(runs / 2);
+    }
+
+    /**
+     * Starts the command and waits for it to be ready: for the terminal,
+     * until the first prompt is written to standard output; for the GUI,
+     * until it reports its first window on standard error.
+     */
+    private static long measureOnce(List<String> command, boolean isGui) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).start();
+        InputStream readySignal = isGui ? process.getErrorStream() : process.getInputStream();
+        boolean isReady = isGui ? waitForLine(readySignal, "First window shown") : waitForPrompt(readySignal);
+        long elapsed = System.nanoTime() - start;
+        process.destroy();
+        process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return isReady ? TimeUnit.NANOSECONDS.toMillis(elapsed) : -1;
+    }
+
+    private static boolean waitForPrompt(InputStream in) throws IOException {
+        String prompt = Repl.PROMPT;
+        int matched = 0;
+        int c;
+        while ((c = in.read()) >= 0) {
+            matched = c == prompt.charAt(matched) ? matched + 1 : (c == prompt.charAt(0) ? 1 : 0);
+            if (matched == prompt.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean waitForLine(InputStream in, String prefix) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String format(long millis) {
+        return millis < 0 ? "unavailable" : Long.toString(millis);
+    }
+}
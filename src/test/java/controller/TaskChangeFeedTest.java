@@ -0,0 +1,87 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+import task.Task;
+import task.TaskList;
+import task.TaskListProjection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskChangeFeedTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final int MAX_PENDING = 20;
+
+    /**
+     * Stands in for the thread of the interface, like in CommandDispatcherTest.
+     */
+    private final LinkedBlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+    private final List<Task> rows = new ArrayList<>();
+    private int resetCount;
+
+    @Test
+    public void start_backlogPastLimit_resetFromSnapshotAndCaughtUp() throws Exception {
+        TaskList taskList = TaskList.newInstance();
+        ExecutorService listThread = Executors.newSingleThreadExecutor();
+        listThread.submit(taskList::clear).get();
+        TaskListProjection projection = new TaskListProjection(rows, tasks -> {
+            resetCount++;
+            rows.clear();
+            rows.addAll(tasks);
+        });
+        TaskChangeFeed feed = new TaskChangeFeed(taskList, projection, listThread, uiTasks::add, MAX_PENDING);
+        try {
+            feed.start(1);
+            runUiTasksUntilCaughtUp(projection, taskList, listThread);
+            assertEquals(1, resetCount);
+
+            // The interface falls behind: nothing is applied while 500 tasks are added.
+            listThread.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    taskList.addNewTodoTask("task " + i, false);
+                }
+            }).get();
+            Thread.sleep(100);
+            assertTrue(feed.getPendingCount() <= MAX_PENDING);
+
+            runUiTasksUntilCaughtUp(projection, taskList, listThread);
+            assertEquals(listThread.submit(() -> new ArrayList<>(taskList.getTasks())).get(), rows);
+            assertTrue(resetCount >= 2);
+
+            // Once caught up, a small change is applied row by row.
+            int resets = resetCount;
+            listThread.submit(() -> taskList.deleteTask(0)).get();
+            runUiTasksUntilCaughtUp(projection, taskList, listThread);
+            assertEquals(499, rows.size());
+            assertEquals(resets, resetCount);
+        } finally {
+            feed.stop();
+            listThread.submit(taskList::clear).get();
+            listThread.shutdown();
+        }
+    }
+
+    private void runUiTasksUntilCaughtUp(TaskListProjection projection, TaskList taskList,
+            ExecutorService listThread) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (projection.getVersion() != listThread.submit(taskList::getVersion).get()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Runnable task = uiTasks.poll(10, TimeUnit.MILLISECONDS);
+            if (task != null) {
+                task.run();
+            }
+        }
+        // A snapshot asked for while catching up may still be on its way.
+        Runnable task;
+        while ((task = uiTasks.poll(100, TimeUnit.MILLISECONDS)) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package main;
+
+import command.CommandResult;
+import org.junit.jupiter.api.Test;
+import task.Task;
+import task.TaskList;
+import utils.StorageFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandExecutorTest {
+    private static final int THREADS = 4;
+    private static final int TASKS_PER_THREAD = 200;
+
+    @Test
+    public void submit_concurrentAddsAndLists_allAddedAndSaved() throws Exception {
+        TaskList.newInstance().clear();
+        File file = StorageFiles.createStorageFile();
+        CommandExecutor executor = new CommandExecutor(new Duke(file.getAbsolutePath()));
+        try {
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                threads.add(new Thread(() -> {
+                    try {
+                        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+                        for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                            results.add(executor.submit("todo task " + thread + " " + i));
+                            // Lists run on this thread and must never fail while tasks are added.
+                            assertFalse(executor.execute("list --page 1 --size 5").hasError());
+                        }
+                        for (CompletableFuture<CommandResult> result : results) {
+                            assertFalse(result.join().hasError());
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(0, failures.size());
+            assertEquals(THREADS * TASKS_PER_THREAD, TaskList.newInstance().size());
+        } finally {
+            executor.close();
+        }
+
+        TaskList.newInstance().clear();
+        new Duke(file.getAbsolutePath()).loadTasks();
+        assertEquals(THREADS * TASKS_PER_THREAD, TaskList.newInstance().size());
+        TaskList.newInstance().clear();
+        StorageFiles.deleteStorageFile(file);
+    }
+
+    @Test
+    public void submit_afterChange_queryReadsPublishedSnapshot() throws IOException {
+        TaskList.newInstance().clear();
+        File file = StorageFiles.createStorageFile();
+        CommandExecutor executor = new CommandExecutor(new Duke(file.getAbsolutePath()));
+        try {
+            executor.execute("todo read book");
+            executor.execute("done 1");
+            CommandResult found = executor.execute("find BOOK");
+            assertFalse(found.hasError());
+            assertEquals(1, found.getEntries().get(0).getTasks().size());
+            assertEquals(Task.DONE, found.getEntries().get(0).getTasks().get(0).getStatus());
+
+            assertTrue(executor.execute("find").hasError());
+            assertTrue(executor.execute("blah").hasError());
+        } finally {
+            executor.close();
+        }
+        assertThrows(IllegalStateException.class, () -> {
+            try {
+                executor.execute("todo too late");
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        });
+        TaskList.newInstance().clear();
+        StorageFiles.deleteStorageFile(file);
+    }
+
+    @Test
+    public void submit_racingClose_everyResultCompleted() throws Exception {
+        TaskList.newInstance().clear();
+        File file = StorageFiles.createStorageFile();
+        CommandExecutor executor = new CommandExecutor(new Duke(file.getAbsolutePath()));
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                    CompletableFuture<CommandResult> result = executor.submit("todo task " + i);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        executor.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (CompletableFuture<CommandResult> result : results) {
+            try {
+                // A command queued as the executor closed must fail rather than wait forever.
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            } catch (TimeoutException e) {
+                throw new AssertionError("A submitted command never completed", e);
+            }
+        }
+        assertEquals(THREADS * TASKS_PER_THREAD, results.size());
+        TaskList.newInstance().clear();
+        StorageFiles.deleteStorageFile(file);
+    }
+
+    @Test
+    public void submit_saveFails_resultCompletedExceptionally() throws Exception {
+        TaskList.newInstance().clear();
+        // A storage file inside a regular file can never be written.
+        File parent = StorageFiles.createStorageFile();
+        parent.createNewFile();
+        CommandExecutor executor = new CommandExecutor(new Duke(new File(parent, "tasks.txt").getPath()));
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> executor.submit("todo read book").get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        } finally {
+            executor.close();
+            parent.delete();
+            TaskList.newInstance().clear();
+        }
+    }
+}
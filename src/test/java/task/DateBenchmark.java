@@ -0,0 +1,73 @@
+package task;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compares reading dates with a new SimpleDateFormat per call, as Task and
+ * Parser used to, against the shared DateTimeFormatter and the fixed-width
+ * fast path in TaskDateTime. Run the main method directly, optionally
+ * passing the number of dates; it is not part of the test suite.
+ */
+public class DateBenchmark {
+    private static final int DEFAULT_DATE_COUNT = 200_000;
+    private static final int ROUNDS = 5;
+
+    /**
+     * Keeps the results of each round alive so the work cannot be optimised away.
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        int dateCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DATE_COUNT;
+        Random random = new Random(36);
+        String[] dates = new String[dateCount];
+        for (int i = 0; i < dateCount; i++) {
+            dates[i] = String.format("%02d/%02d/2019 %02d%02d", random.nextInt(28) + 1,
+                    random.nextInt(12) + 1, random.nextInt(24), random.nextInt(60));
+        }
+        System.out.printf("%d dates%n", dateCount);
+        System.out.printf("%-18s %14s%n", "parser", "dates/s");
+        System.out.printf("%-18s %14.0f%n", "SimpleDateFormat",
+                measure(dates, DateBenchmark::parseWithSimpleDateFormat));
+        System.out.printf("%-18s %14.0f%n", "DateTimeFormatter", measure(dates,
+            date -> LocalDateTime.parse(date, TaskDateTime.FORMATTER).toEpochSecond(ZoneOffset.UTC)));
+        System.out.printf("%-18s %14.0f%n", "fast path", measure(dates, TaskDateTime::parseEpochMinutes));
+        System.out.printf("(checksum %d)%n", sink);
+    }
+
+    /**
+     * Returns the best throughput in dates per second over the rounds, after
+     * a warm-up round.
+     */
+    private static double measure(String[] dates, ToLongFunction<String> parser) {
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            long total = 0;
+            for (String date : dates) {
+                total += parser.applyAsLong(date);
+            }
+            long elapsed = System.nanoTime() - start;
+            sink += total;
+            if (round > 0) {
+                bestNanos = Math.min(bestNanos, elapsed);
+            }
+        }
+        return dates.length / (bestNanos / 1e9);
+    }
+
+    private static long parseWithSimpleDateFormat(String date) {
+        SimpleDateFormat sdf = new SimpleDateFormat(TaskDateTime.PATTERN);
+        sdf.setLenient(false);
+        try {
+            return sdf.parse(date).getTime() / 60_000;
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+}
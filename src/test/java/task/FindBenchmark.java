@@ -0,0 +1,53 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how a keyword scan over a large task list scales with the number
+ * of fork/join workers. Run the main method directly, optionally passing the
+ * largest worker count to try; it is not part of the test suite.
+ */
+public class FindBenchmark {
+    private static final int TASK_COUNT = 2_000_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(new Deadline("task number " + i, String.format("%02d/08/2019 2100", i % 28 + 1)));
+        }
+
+        int cores = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        System.out.printf("%d tasks, %d cores available%n", TASK_COUNT, cores);
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            double millis = measure(tasks, pool);
+            if (parallelism == 1) {
+                baseline = millis;
+            }
+            System.out.printf("workers=%2d  %8.2f ms/scan  speedup %.2fx%n",
+                    parallelism, millis, baseline / millis);
+            pool.shutdown();
+        }
+    }
+
+    private static double measure(List<Task> tasks, ForkJoinPool pool) {
+        int matches = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            matches += TaskScanner.scan(tasks, task -> task.isAssociatedWithFolded("99"), pool).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            matches += TaskScanner.scan(tasks, task -> task.isAssociatedWithFolded("99"), pool).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (matches < 0) {
+            System.out.println(matches);
+        }
+        return elapsed / 1e6 / MEASURED_ROUNDS;
+    }
+}
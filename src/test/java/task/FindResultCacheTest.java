@@ -0,0 +1,61 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FindResultCacheTest {
+
+    @Test
+    public void generateListByKeyword_repeatedQuery_servedFromCache() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewTodoTask("karate proposal", false);
+        FindResultCache cache = taskList.getFindCache();
+        long hits = cache.getHitCount();
+        List<Task> first = taskList.generateListByKeyword("karate");
+        List<Task> second = taskList.generateListByKeyword("karate");
+        assertEquals(first, second);
+        assertEquals(hits + 1, cache.getHitCount());
+        taskList.clear();
+    }
+
+    @Test
+    public void generateListByKeyword_unrelatedTaskAdded_resultStillCached() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewTodoTask("karate proposal", false);
+        taskList.generateListByKeyword("karate");
+        taskList.generateListByKeyword("hello");
+        taskList.addNewTodoTask("hello world", false);
+
+        long hits = taskList.getFindCache().getHitCount();
+        assertEquals(1, taskList.generateListByKeyword("karate").size());
+        assertEquals(hits + 1, taskList.getFindCache().getHitCount());
+        assertEquals(1, taskList.generateListByKeyword("hello").size());
+        assertEquals(hits + 1, taskList.getFindCache().getHitCount());
+        taskList.clear();
+    }
+
+    @Test
+    public void put_beyondCapacity_leastRecentlyUsedEvicted() {
+        FindResultCache cache = new FindResultCache(2);
+        cache.put("a", List.of(), 0);
+        cache.put("b", List.of(), 0);
+        cache.get("a", 0);
+        cache.put("c", List.of(), 0);
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(null, cache.get("b", 0));
+        assertEquals(List.of(), cache.get("a", 0));
+    }
+
+    @Test
+    public void get_staleVersion_miss() {
+        FindResultCache cache = new FindResultCache(2);
+        cache.put("a", List.of(), 0);
+        assertEquals(null, cache.get("a", 1));
+        assertEquals(1, cache.getMissCount());
+    }
+}
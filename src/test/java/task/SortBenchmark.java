@@ -0,0 +1,134 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Compares sorting a large task list with the full comparators against
+ * sorting it by extracted sort keys, for every category in both directions
+ * and for a composite order against chained thenComparing comparators.
+ * With the "parallel" argument, it instead compares sequential and parallel
+ * sorting over growing list sizes.
+ * Run the main method directly, optionally passing the number of tasks; it
+ * is not part of the test suite.
+ */
+public class SortBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final int ROUNDS = 3;
+    private static final String[] CATEGORY_NAMES = {"name", "deadline", "type", "status"};
+    private static final String[] VERBS = {"read", "write", "submit", "review", "plan", "call", "buy", "fix"};
+    private static final String[] NOUNS = {"report", "assignment", "proposal", "slides", "groceries", "tutorial"};
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("parallel")) {
+            measureParallelCrossover();
+            return;
+        }
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        List<Task> tasks = generateTasks(taskCount);
+        System.out.printf("%d tasks%n", taskCount);
+        System.out.printf("%-20s %14s %14s%n", "order", "comparator ms", "sort key ms");
+        for (int category = Task.NAME_CATEGORY; category <= Task.STATUS_CATEGORY; category++) {
+            for (boolean isReversed : new boolean[]{false, true}) {
+                int sortCategory = category;
+                double comparatorMillis = measure(tasks,
+                    sorted -> sorted.sort(getComparator(sortCategory, isReversed)));
+                double keyMillis = measure(tasks,
+                    sorted -> TaskSorter.sort(sorted, sortCategory, isReversed));
+                System.out.printf("%-20s %14.1f %14.1f%n", CATEGORY_NAMES[category] + (isReversed ? ":r" : ""),
+                        comparatorMillis, keyMillis);
+            }
+        }
+
+        SortOrder compositeOrder = new SortOrder(
+                new int[]{Task.STATUS_CATEGORY, Task.DEADLINE_CATEGORY, Task.NAME_CATEGORY},
+                new boolean[]{false, false, true});
+        Comparator<Task> chainedComparator = getComparator(Task.STATUS_CATEGORY, false)
+                .thenComparing(getComparator(Task.DEADLINE_CATEGORY, false))
+                .thenComparing(getComparator(Task.NAME_CATEGORY, true));
+        double chainedMillis = measure(tasks, sorted -> sorted.sort(chainedComparator));
+        double compositeMillis = measure(tasks, sorted -> TaskSorter.sort(sorted, compositeOrder));
+        System.out.printf("%-20s %14.1f %14.1f%n", compositeOrder, chainedMillis, compositeMillis);
+    }
+
+    /**
+     * Compares sequential and parallel sorting of the default composite order
+     * over growing list sizes, to find the size from which the parallel sort
+     * pays off.
+     */
+    private static void measureParallelCrossover() {
+        SortOrder sortOrder = new SortOrder(new int[]{Task.STATUS_CATEGORY, Task.DEADLINE_CATEGORY},
+                new boolean[]{false, false});
+        System.out.printf("%d cores, threshold %d%n", Runtime.getRuntime().availableProcessors(),
+                TaskSorter.PARALLEL_SORT_THRESHOLD);
+        System.out.printf("%10s %14s %14s%n", "tasks", "sequential ms", "parallel ms");
+        for (int taskCount = 1024; taskCount <= 4 * DEFAULT_TASK_COUNT; taskCount *= 4) {
+            List<Task> tasks = generateTasks(taskCount);
+            double sequentialMillis = measure(tasks, sorted -> TaskSorter.sort(sorted, sortOrder, false));
+            double parallelMillis = measure(tasks, sorted -> TaskSorter.sort(sorted, sortOrder, true));
+            System.out.printf("%10d %14.3f %14.3f%n", taskCount, sequentialMillis, parallelMillis);
+        }
+    }
+
+    /**
+     * Returns the best time in milliseconds of sorting a fresh copy of the
+     * tasks, after a warm-up round.
+     */
+    private static double measure(List<Task> tasks, Consumer<List<Task>> sorter) {
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            List<Task> sorted = new ArrayList<>(tasks);
+            long start = System.nanoTime();
+            sorter.accept(sorted);
+            long elapsed = System.nanoTime() - start;
+            if (round > 0) {
+                bestNanos = Math.min(bestNanos, elapsed);
+            }
+        }
+        return bestNanos / 1e6;
+    }
+
+    private static List<Task> generateTasks(int taskCount) {
+        Random random = new Random(42);
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            String name = VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                    + " " + random.nextInt(taskCount);
+            String date = String.format("%02d/%02d/2019 %02d%02d", random.nextInt(28) + 1,
+                    random.nextInt(12) + 1, random.nextInt(24), random.nextInt(60));
+            Task task;
+            switch (i % 3) {
+            case 0:
+                task = new Todo(name);
+                break;
+            case 1:
+                task = new Deadline(name, date);
+                break;
+            default:
+                task = new Event(name, date);
+                break;
+            }
+            if (random.nextBoolean()) {
+                task.setDone();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static Comparator<Task> getComparator(int category, boolean isReversed) {
+        switch (category) {
+        case Task.NAME_CATEGORY:
+            return TaskComparatorFactory.getNameComparator(isReversed);
+        case Task.DEADLINE_CATEGORY:
+            return TaskComparatorFactory.getDeadlineComparator(isReversed);
+        case Task.TYPE_CATEGORY:
+            return TaskComparatorFactory.getTypeComparator(isReversed);
+        default:
+            return TaskComparatorFactory.getStatusComparator(isReversed);
+        }
+    }
+}
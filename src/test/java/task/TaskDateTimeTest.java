@@ -0,0 +1,71 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskDateTimeTest {
+
+    @Test
+    public void parseEpochMinutes_randomDates_sameAsLocalDateTime() {
+        Random random = new Random(36);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(random.nextInt(10_000), 1, 1, 0, 0)
+                    .plusMinutes(random.nextInt(366 * 24 * 60));
+            String text = TaskDateTime.FORMATTER.format(dateTime);
+            long expected = Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+            assertEquals(expected, TaskDateTime.parseEpochMinutes(text));
+            assertEquals(dateTime, TaskDateTime.toLocalDateTime(expected));
+        }
+    }
+
+    @Test
+    public void isValid_leapDays_onlyInLeapYears() {
+        assertTrue(TaskDateTime.isValid("29/02/2000 0000"));
+        assertTrue(TaskDateTime.isValid("29/02/2020 2359"));
+        assertFalse(TaskDateTime.isValid("29/02/1900 1200"));
+        assertFalse(TaskDateTime.isValid("29/02/2019 1200"));
+    }
+
+    @Test
+    public void isValid_malformedDates_false() {
+        assertFalse(TaskDateTime.isValid("31/04/2019 1200"));
+        assertFalse(TaskDateTime.isValid("00/01/2019 1200"));
+        assertFalse(TaskDateTime.isValid("01/13/2019 1200"));
+        assertFalse(TaskDateTime.isValid("01/01/2019 2400"));
+        assertFalse(TaskDateTime.isValid("01/01/2019 1260"));
+        assertFalse(TaskDateTime.isValid("01/01/20a9 1200"));
+        assertFalse(TaskDateTime.isValid("1/1/2019 1200"));
+        assertFalse(TaskDateTime.isValid("22nd June"));
+        assertFalse(TaskDateTime.isValid(""));
+    }
+
+    @Test
+    public void parseEpochMinutes_signedYearsOrVenues_sameAsFormatter() {
+        for (String text : new String[] {"01/01/+10000 0000", "31/12/-0001 2359", "01/01/10000 0000",
+                "01/01/+2019 1200", "01/01/2019 1200 ", "my house", "the canteen at 7"}) {
+            long expected;
+            try {
+                LocalDateTime dateTime = LocalDateTime.parse(text, TaskDateTime.FORMATTER);
+                expected = Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+            } catch (DateTimeParseException e) {
+                expected = TaskDateTime.NOT_A_DATE;
+            }
+            assertEquals(expected, TaskDateTime.parseEpochMinutes(text));
+        }
+        assertTrue(TaskDateTime.isValid("01/01/+10000 0000"));
+    }
+
+    @Test
+    public void getDeadline_todoAndDeadline_nullOrDate() {
+        assertEquals(null, new Todo("a").getDeadline());
+        assertEquals(LocalDateTime.of(2019, 8, 25, 21, 56), new Deadline("b", "25/08/2019 2156").getDeadline());
+    }
+}
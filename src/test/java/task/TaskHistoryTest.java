@@ -0,0 +1,233 @@
+package task;
+
+import exception.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskHistoryTest {
+
+    private static Task add(TaskList taskList, TaskHistory history, String name) {
+        Task task = taskList.addNewTodoTask(name, false);
+        history.recordAdd(taskList.indexOf(task), task);
+        return task;
+    }
+
+    @Test
+    public void undoRedo_addDoneDelete_listRestoredEachStep() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        add(taskList, history, "b");
+        int doneIdx = taskList.markAsDone(0);
+        history.recordDone(doneIdx, taskList.get(doneIdx));
+        history.recordDelete(1, taskList.deleteTask(1));
+
+        assertEquals(TaskHistory.Effect.ADDED, history.undo(taskList).get(0).getEffect());
+        assertEquals("b", taskList.get(1).getName());
+        assertEquals(TaskHistory.Effect.MARKED_NOT_DONE, history.undo(taskList).get(0).getEffect());
+        assertEquals(Task.NOT_DONE, taskList.get(0).getStatus());
+        assertEquals(TaskHistory.Effect.MARKED_DONE, history.redo(taskList).get(0).getEffect());
+        assertEquals(Task.DONE, taskList.get(0).getStatus());
+        assertEquals(TaskHistory.Effect.DELETED, history.redo(taskList).get(0).getEffect());
+        assertEquals(1, taskList.size());
+        assertFalse(history.canRedo());
+        taskList.clear();
+    }
+
+    @Test
+    public void recordAdd_afterUndo_redoDiscarded() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        history.undo(taskList);
+        add(taskList, history, "b");
+
+        assertFalse(history.canRedo());
+        assertEquals(1, history.size());
+        taskList.clear();
+    }
+
+    @Test
+    public void recordAdd_overByteBudget_oldestDropped() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory(TaskHistory.DEFAULT_CAPACITY, 300);
+        for (int i = 0; i < 20; i++) {
+            add(taskList, history, "task " + i);
+        }
+
+        assertTrue(history.getUsedBytes() <= 300);
+        assertTrue(history.size() < 20);
+        int undoCount = 0;
+        while (history.canUndo()) {
+            history.undo(taskList);
+            undoCount++;
+        }
+        assertEquals(history.size(), undoCount);
+        assertEquals(20 - undoCount, taskList.size());
+        taskList.clear();
+    }
+
+    @Test
+    public void undo_listReorderedSince_taskFoundByStorageFormat() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "b");
+        add(taskList, history, "a");
+        taskList.sort(Task.NAME_CATEGORY, false);
+
+        history.undo(taskList);
+
+        assertEquals(1, taskList.size());
+        assertEquals("b", taskList.get(0).getName());
+        taskList.clear();
+    }
+
+    @Test
+    public void undo_taskDeletedSince_exceptionThrown() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        taskList.deleteTask(0);
+
+        assertThrows(InvalidArgumentException.class, () -> history.undo(taskList));
+        taskList.clear();
+    }
+
+    @Test
+    public void readFrom_writtenHistory_sameUndoAndRedo() throws IOException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        add(taskList, history, "b");
+        history.undo(taskList);
+        StringWriter writer = new StringWriter();
+        history.writeTo(writer);
+
+        TaskHistory loaded = new TaskHistory();
+        loaded.readFrom(new BufferedReader(new StringReader(writer.toString())));
+
+        assertEquals(2, loaded.size());
+        assertEquals("b", loaded.redo(taskList).get(0).getTask().getName());
+        assertEquals("b", loaded.undo(taskList).get(0).getTask().getName());
+        assertEquals("a", loaded.undo(taskList).get(0).getTask().getName());
+        assertTrue(taskList.isEmpty());
+        taskList.clear();
+    }
+
+    @Test
+    public void undo_committedGroup_allChangesRevertedAsOne() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        history.beginGroup();
+        add(taskList, history, "b");
+        int doneIdx = taskList.markAsDone(0);
+        history.recordDone(doneIdx, taskList.get(doneIdx));
+        history.endGroup();
+
+        assertEquals(2, history.undo(taskList).size());
+        assertEquals(1, taskList.size());
+        assertEquals(Task.NOT_DONE, taskList.get(0).getStatus());
+        assertEquals(2, history.redo(taskList).size());
+        assertEquals(2, taskList.size());
+        taskList.clear();
+    }
+
+    @Test
+    public void undo_groupWithTaskDeletedSince_listAndHistoryUnchanged() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        history.beginGroup();
+        add(taskList, history, "b");
+        add(taskList, history, "c");
+        history.endGroup();
+        taskList.deleteTask(1);
+
+        assertThrows(InvalidArgumentException.class, () -> history.undo(taskList));
+        assertEquals(2, taskList.size());
+        assertEquals("a", taskList.get(0).getName());
+        assertEquals("c", taskList.get(1).getName());
+        assertTrue(history.canUndo());
+        assertFalse(history.canRedo());
+        taskList.clear();
+    }
+
+    @Test
+    public void redo_groupWithTaskDeletedSince_listAndHistoryUnchanged() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        add(taskList, history, "b");
+        history.beginGroup();
+        int doneIdx = taskList.markAsDone(0);
+        history.recordDone(doneIdx, taskList.get(doneIdx));
+        doneIdx = taskList.markAsDone(1);
+        history.recordDone(doneIdx, taskList.get(doneIdx));
+        history.endGroup();
+        history.undo(taskList);
+        taskList.deleteTask(1);
+
+        assertThrows(InvalidArgumentException.class, () -> history.redo(taskList));
+        assertEquals(1, taskList.size());
+        assertEquals(Task.NOT_DONE, taskList.get(0).getStatus());
+        assertTrue(history.canRedo());
+        taskList.clear();
+    }
+
+    @Test
+    public void rollbackGroup_changesInGroup_revertedAndForgotten() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory();
+        add(taskList, history, "a");
+        history.beginGroup();
+        add(taskList, history, "b");
+        history.recordDelete(0, taskList.deleteTask(0));
+
+        assertEquals(2, history.rollbackGroup(taskList).size());
+
+        assertEquals(1, taskList.size());
+        assertEquals("a", taskList.get(0).getName());
+        assertEquals(1, history.size());
+        assertFalse(history.canRedo());
+        taskList.clear();
+    }
+
+    @Test
+    public void recordAdd_openGroupOverBudget_groupKeptUntilEnded() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskHistory history = new TaskHistory(4, 300);
+        add(taskList, history, "a");
+        history.beginGroup();
+        for (int i = 0; i < 10; i++) {
+            add(taskList, history, "task " + i);
+        }
+        assertEquals(10, history.getGroupSize());
+        history.endGroup();
+
+        assertEquals(10, history.size());
+        assertEquals(10, history.undo(taskList).size());
+        assertEquals(1, taskList.size());
+        taskList.clear();
+    }
+}
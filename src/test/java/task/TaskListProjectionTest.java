@@ -0,0 +1,93 @@
+package task;
+
+import exception.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+import utils.BatchingSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskListProjectionTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final List<Task> rows = new ArrayList<>();
+    private int replaceCount;
+
+    private TaskListProjection createProjection() {
+        return new TaskListProjection(rows, tasks -> {
+            replaceCount++;
+            rows.clear();
+            rows.addAll(tasks);
+        });
+    }
+
+    @Test
+    public void accept_addDoneDeleteSort_rowsFollowTaskList() throws InvalidArgumentException, InterruptedException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewTodoTask("read book", false);
+        TaskListProjection projection = createProjection();
+        BatchingSubscriber<TaskChangeEvent> subscriber = new BatchingSubscriber<>(256, 1, events -> {
+            synchronized (this) {
+                projection.accept(events);
+            }
+        });
+        taskList.getChangePublisher().subscribe(subscriber);
+        synchronized (this) {
+            projection.reset(taskList.snapshot());
+        }
+
+        taskList.addNewTodoTask("write essay", false);
+        Task callMum = taskList.addNewTodoTask("call mum", false);
+        taskList.markAsDone(0);
+        taskList.deleteTask(1);
+        taskList.sort(Task.NAME_CATEGORY, false);
+        taskList.addNewTodoTask("buy milk", false);
+        taskList.markAsDone(taskList.indexOf(callMum));
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (this) {
+                if (projection.getVersion() == taskList.getVersion()) {
+                    break;
+                }
+            }
+            Thread.sleep(10);
+        }
+        synchronized (this) {
+            assertEquals(taskList.getVersion(), projection.getVersion());
+            assertEquals(taskList.getTasks(), rows);
+            // Once for the snapshot and once for the sort; every other change touched one row.
+            assertEquals(2, replaceCount);
+        }
+        subscriber.cancel();
+        taskList.clear();
+    }
+
+    @Test
+    public void accept_eventsInSnapshotOrBeforeSort_skipped() {
+        Task first = new Todo("read book");
+        Task second = new Todo("write essay");
+        Task third = new Todo("call mum");
+        TaskListProjection projection = createProjection();
+        projection.reset(new TaskSnapshot(List.of(first), 5));
+
+        projection.accept(List.of(
+                new TaskChangeEvent(TaskChangeEvent.Kind.ADDED, first, null, 0, 0, 5, null),
+                new TaskChangeEvent(TaskChangeEvent.Kind.ADDED, second, null, 1, 1, 6, null)));
+        assertEquals(List.of(first, second), rows);
+
+        projection.accept(List.of(
+                new TaskChangeEvent(TaskChangeEvent.Kind.REMOVED, first, null, 0, 0, 7, null),
+                new TaskChangeEvent(TaskChangeEvent.Kind.REORDERED, null, null, -1, -1, 8,
+                        new TaskSnapshot(List.of(second), 8)),
+                new TaskChangeEvent(TaskChangeEvent.Kind.ADDED, third, null, 0, 0, 9, null)));
+        assertEquals(List.of(third, second), rows);
+        assertEquals(9, projection.getVersion());
+        assertEquals(2, replaceCount);
+        assertTrue(rows.get(1) == second);
+    }
+}
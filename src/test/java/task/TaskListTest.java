@@ -3,8 +3,16 @@ package task;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class TaskListTest {
 
@@ -26,6 +34,268 @@ public class TaskListTest {
         assertEquals(Task.NOT_DONE, newTodo.getStatus());
     }
 
+    @Test
+    public void openCursor_listChangedAfterOpening_pagesUnchanged() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        for (int i = 1; i <= 5; i++) {
+            taskList.addNewTodoTask("Todo" + i, false);
+        }
+        TaskCursor cursor = taskList.openCursor(2);
+        taskList.deleteTask(0);
+        assertEquals(3, cursor.getPageCount());
+        assertEquals("Todo1", cursor.page(1).get(0).getName());
+        assertEquals("Todo3", cursor.next().get(0).getName());
+        assertEquals(1, cursor.page(3).size());
+        taskList.clear();
+    }
+
+    @Test
+    public void generateListByKeyword_differentCaseAndWidth_found() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewTodoTask("karate proposal", false);
+        taskList.addNewDeadlineTask("STRASSE", "01/01/2020 1200", false);
+        assertEquals(1, taskList.generateListByKeyword("Karate").size());
+        // Full-width "KARATE"
+        assertEquals(1, taskList.generateListByKeyword("\uff2b\uff21\uff32\uff21\uff34\uff25").size());
+        // "stra\u00dfe" folds to "strasse"
+        assertEquals(1, taskList.generateListByKeyword("stra\u00dfe").size());
+        taskList.clear();
+    }
+
+    @Test
+    public void generateUpcomingList_mixedTasks_earliestNotDoneInOrder() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewDeadlineTask("later", "03/01/2020 1200", false);
+        taskList.addNewTodoTask("todo", false);
+        taskList.addNewDeadlineTask("done", "01/01/2020 1200", true);
+        taskList.addNewEventTask("venue", "mpsh2", false);
+        taskList.addNewEventTask("earliest", "02/01/2020 0800", false);
+        taskList.addNewDeadlineTask("latest", "04/01/2020 1200", false);
+
+        List<Task> upcomingTasks = taskList.generateUpcomingList(2);
+        assertEquals(2, upcomingTasks.size());
+        assertEquals("earliest", upcomingTasks.get(0).getName());
+        assertEquals("later", upcomingTasks.get(1).getName());
+        assertEquals("later", taskList.get(0).getName());
+        assertEquals(3, taskList.generateUpcomingList(10).size());
+        taskList.clear();
+    }
+
+    @Test
+    public void sort_byNameWithSharedPrefixes_sameOrderAsComparator() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        String[] names = {"karate welcome tea", "Karate proposal", "b", "karate", "KARATE Z", "a longer name", "kar"};
+        for (String name : names) {
+            taskList.addNewTodoTask(name, false);
+        }
+        List<Task> expected = new ArrayList<>(taskList.getTasks());
+        expected.sort(TaskComparatorFactory.getNameComparator(true));
+        taskList.sort(Task.NAME_CATEGORY, true);
+        assertEquals(expected, taskList.getTasks());
+        taskList.clear();
+    }
+
+    @Test
+    public void sort_byTypeReversed_stableWithinType() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        Task firstTodo = taskList.addNewTodoTask("todo1", false);
+        taskList.addNewDeadlineTask("deadline", "01/01/2020 1200", false);
+        Task secondTodo = taskList.addNewTodoTask("todo2", false);
+        taskList.addNewEventTask("event", "mpsh2", false);
+        taskList.sort(Task.TYPE_CATEGORY, true);
+        assertEquals(firstTodo, taskList.get(0));
+        assertEquals(secondTodo, taskList.get(1));
+        assertEquals("event", taskList.get(2).getName());
+        taskList.clear();
+    }
+
+    @Test
+    public void sort_randomTasks_sameOrderAsComparators() {
+        Random random = new Random(2103);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = (random.nextBoolean() ? "Task " : "t\u00e2che ") + random.nextInt(50);
+            String date = "0" + (random.nextInt(9) + 1) + "/01/2020 1200";
+            Task task = i % 2 == 0 ? new Todo(name) : new Deadline(name, date);
+            if (random.nextBoolean()) {
+                task.setDone();
+            }
+            tasks.add(task);
+        }
+        for (boolean isReversed : new boolean[]{false, true}) {
+            List<Task> expected = new ArrayList<>(tasks);
+            expected.sort(TaskComparatorFactory.getNameComparator(isReversed));
+            List<Task> sorted = new ArrayList<>(tasks);
+            TaskSorter.sort(sorted, Task.NAME_CATEGORY, isReversed);
+            assertEquals(expected, sorted);
+
+            expected = new ArrayList<>(tasks);
+            expected.sort(TaskComparatorFactory.getDeadlineComparator(isReversed));
+            sorted = new ArrayList<>(tasks);
+            TaskSorter.sort(sorted, Task.DEADLINE_CATEGORY, isReversed);
+            assertEquals(expected, sorted);
+
+            expected = new ArrayList<>(tasks);
+            expected.sort(TaskComparatorFactory.getStatusComparator(isReversed));
+            sorted = new ArrayList<>(tasks);
+            TaskSorter.sort(sorted, Task.STATUS_CATEGORY, isReversed);
+            assertEquals(expected, sorted);
+        }
+    }
+
+    @Test
+    public void sort_compositeOrder_sameOrderAsChainedComparators() {
+        Random random = new Random(2019);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = "task " + random.nextInt(100);
+            String date = String.format("%02d/01/2020 1200", random.nextInt(5) + 1);
+            Task task = i % 3 == 0 ? new Todo(name) : new Event(name, date);
+            if (random.nextBoolean()) {
+                task.setDone();
+            }
+            tasks.add(task);
+        }
+        SortOrder[] sortOrders = {
+            new SortOrder(new int[]{Task.STATUS_CATEGORY, Task.DEADLINE_CATEGORY, Task.NAME_CATEGORY},
+                    new boolean[]{false, false, true}),
+            new SortOrder(new int[]{Task.NAME_CATEGORY, Task.STATUS_CATEGORY},
+                    new boolean[]{false, true}),
+            new SortOrder(new int[]{Task.TYPE_CATEGORY, Task.DEADLINE_CATEGORY},
+                    new boolean[]{true, false})
+        };
+        for (SortOrder sortOrder : sortOrders) {
+            Comparator<Task> expectedOrder = TaskComparatorFactory.getComparator(sortOrder.getCategory(0),
+                    sortOrder.isReversed(0));
+            for (int i = 1; i < sortOrder.size(); i++) {
+                expectedOrder = expectedOrder.thenComparing(TaskComparatorFactory.getComparator(
+                        sortOrder.getCategory(i), sortOrder.isReversed(i)));
+            }
+            List<Task> expected = new ArrayList<>(tasks);
+            expected.sort(expectedOrder);
+            List<Task> sorted = new ArrayList<>(tasks);
+            TaskSorter.sort(sorted, sortOrder);
+            assertEquals(expected, sorted, sortOrder.toString());
+        }
+    }
+
+    @Test
+    public void sort_deadlineWithVenueEvent_sameOrderAsComparator() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("todo1"));
+        tasks.add(new Event("party", "my house"));
+        tasks.add(new Deadline("essay", "02/02/2020 1800"));
+        tasks.add(new Todo("todo2"));
+        tasks.add(new Event("talk", "01/02/2020 0900"));
+        for (boolean isReversed : new boolean[]{false, true}) {
+            List<Task> expected = new ArrayList<>(tasks);
+            expected.sort(TaskComparatorFactory.getComparator(Task.DEADLINE_CATEGORY, isReversed));
+            List<Task> sorted = new ArrayList<>(tasks);
+            TaskSorter.sort(sorted, Task.DEADLINE_CATEGORY, isReversed);
+            assertEquals(expected, sorted);
+        }
+    }
+
+    @Test
+    public void sort_parallel_sameOrderAsSequential() {
+        Random random = new Random(33);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TaskSorter.PARALLEL_SORT_THRESHOLD + 1000; i++) {
+            Task task = new Deadline("task " + random.nextInt(1000),
+                    String.format("%02d/01/2020 1200", random.nextInt(28) + 1));
+            if (random.nextBoolean()) {
+                task.setDone();
+            }
+            tasks.add(task);
+        }
+        SortOrder sortOrder = new SortOrder(new int[]{Task.STATUS_CATEGORY, Task.NAME_CATEGORY},
+                new boolean[]{true, false});
+        List<Task> sequential = new ArrayList<>(tasks);
+        TaskSorter.sort(sequential, sortOrder, false);
+        List<Task> parallel = new ArrayList<>(tasks);
+        TaskSorter.sort(parallel, sortOrder, true);
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void addNewTodoTask_afterSort_insertedInSortedOrder() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        Random random = new Random(34);
+        for (int i = 0; i < 200; i++) {
+            taskList.addNewTodoTask("task " + random.nextInt(50), random.nextBoolean());
+        }
+        SortOrder sortOrder = new SortOrder(new int[]{Task.STATUS_CATEGORY, Task.NAME_CATEGORY},
+                new boolean[]{false, true});
+        taskList.sort(sortOrder);
+        for (int i = 0; i < 200; i++) {
+            taskList.addNewTodoTask("task " + random.nextInt(50), random.nextBoolean());
+        }
+        List<Task> expected = new ArrayList<>(taskList.getTasks());
+        expected.sort(TaskComparatorFactory.getComparator(sortOrder));
+        assertEquals(expected, taskList.getTasks());
+        taskList.clear();
+    }
+
+    @Test
+    public void addNewTask_afterDeadlineSortWithVenueEvent_insertedInSortedOrder() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewTodoTask("todo1", false);
+        taskList.addNewEventTask("party", "my house", false);
+        taskList.addNewDeadlineTask("essay", "02/02/2020 1800", false);
+        SortOrder sortOrder = new SortOrder(new int[]{Task.DEADLINE_CATEGORY}, new boolean[]{false});
+        taskList.sort(sortOrder);
+        taskList.addNewEventTask("dinner", "the canteen", false);
+        taskList.addNewDeadlineTask("report", "01/02/2020 1200", false);
+        taskList.addNewTodoTask("todo2", false);
+
+        List<Task> expected = new ArrayList<>(taskList.getTasks());
+        expected.sort(TaskComparatorFactory.getComparator(sortOrder));
+        assertEquals(expected, taskList.getTasks());
+        assertEquals("party", taskList.get(2).getName());
+        assertEquals("dinner", taskList.get(3).getName());
+        taskList.clear();
+    }
+
+    @Test
+    public void markAsDone_sortedByStatus_movedAndNewIndexReturned() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewTodoTask("a", false);
+        taskList.addNewTodoTask("b", false);
+        taskList.addNewTodoTask("c", true);
+        taskList.sort(new SortOrder(new int[]{Task.STATUS_CATEGORY}, new boolean[]{false}));
+        Task task = taskList.get(0);
+        int newIdx = taskList.markAsDone(0);
+        assertEquals(task.getName(), taskList.get(newIdx).getName());
+        assertEquals(Task.DONE, taskList.get(newIdx).getStatus());
+        assertEquals(Task.NOT_DONE, task.getStatus());
+        assertEquals(2, newIdx);
+        assertEquals(1, taskList.markAsNotDone(newIdx));
+        taskList.clear();
+    }
+
+    @Test
+    public void getChangeStats_changesMade_countedByKind() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        TaskChangeStats stats = taskList.getChangeStats();
+        long added = stats.getCount(TaskChangeEvent.Kind.ADDED);
+        long removed = stats.getCount(TaskChangeEvent.Kind.REMOVED);
+        taskList.addNewTodoTask("a", false);
+        taskList.addNewTodoTask("b", false);
+        taskList.deleteTask(0);
+        assertEquals(added + 2, stats.getCount(TaskChangeEvent.Kind.ADDED));
+        assertEquals(removed + 1, stats.getCount(TaskChangeEvent.Kind.REMOVED));
+        taskList.clear();
+    }
+
     @Test
     public void clear_emptyList() {
         TaskList taskList = TaskList.newInstance();
@@ -36,4 +306,79 @@ public class TaskListTest {
         assertEquals(new ArrayList<Task>(), taskList.getTasks());
     }
 
+
+    @Test
+    public void snapshot_listChangedAfterwards_snapshotUnchanged() {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        taskList.addNewTodoTask("a", false);
+        taskList.addNewTodoTask("b", false);
+        TaskSnapshot snapshot = taskList.snapshot();
+        assertEquals(snapshot, taskList.snapshot());
+
+        taskList.markAsDone(0);
+        taskList.deleteTask(1);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(Task.NOT_DONE, snapshot.getTasks().get(0).getStatus());
+        assertEquals(1, snapshot.generateListByKeyword("B").size());
+        assertEquals(Task.DONE, taskList.snapshot().getTasks().get(0).getStatus());
+        taskList.clear();
+    }
+
+    @Test
+    public void getChangePublisher_addDoneDeleteSort_eventsInOrder() throws InterruptedException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        BlockingQueue<TaskChangeEvent> events = new LinkedBlockingQueue<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        taskList.getChangePublisher().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription newSubscription) {
+                subscription[0] = newSubscription;
+                newSubscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(TaskChangeEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        Task todo = taskList.addNewTodoTask("b", false);
+        taskList.addNewTodoTask("a", false);
+        taskList.sort(Task.STATUS_CATEGORY, false);
+        taskList.markAsDone(0);
+        taskList.deleteTask(0);
+
+        TaskChangeEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Kind.ADDED, event.getKind());
+        assertEquals(todo, event.getTask());
+        assertEquals(0, event.getIndex());
+        assertEquals(1, events.poll(5, TimeUnit.SECONDS).getIndex());
+        assertEquals(TaskChangeEvent.Kind.REORDERED, events.poll(5, TimeUnit.SECONDS).getKind());
+
+        event = events.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Kind.STATUS_CHANGED, event.getKind());
+        assertEquals(todo, event.getOldTask());
+        assertEquals(Task.DONE, event.getTask().getStatus());
+        assertEquals(0, event.getPreviousIndex());
+        assertEquals(1, event.getIndex());
+
+        event = events.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Kind.REMOVED, event.getKind());
+        assertEquals("a", event.getTask().getName());
+        assertEquals(taskList.getVersion(), event.getVersion());
+        subscription[0].cancel();
+        taskList.clear();
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
 }
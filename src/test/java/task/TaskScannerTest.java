@@ -0,0 +1,43 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TaskScannerTest {
+
+    private List<Task> generateTasks(int size) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            tasks.add(new Todo(i % 3 == 0 ? "karate " + i : "task " + i));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void scan_smallList_matchesInOrder() {
+        List<Task> tasks = generateTasks(10);
+        List<Task> result = TaskScanner.scan(tasks, task -> task.isAssociated("karate"));
+        assertEquals(4, result.size());
+        assertEquals("karate 9", result.get(3).getName());
+    }
+
+    @Test
+    public void scan_largeList_sameResultAsSequentialScan() {
+        List<Task> tasks = generateTasks(TaskScanner.PARALLEL_SCAN_THRESHOLD * 4 + 7);
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            List<Task> expected = TaskScanner.scan(tasks, task -> task.isAssociated("karate"), sequentialPool);
+            List<Task> result = TaskScanner.scan(tasks, task -> task.isAssociated("karate"), parallelPool);
+            assertEquals(expected, result);
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+}
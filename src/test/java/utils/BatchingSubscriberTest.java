@@ -0,0 +1,81 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchingSubscriberTest {
+
+    @Test
+    public void onNext_burstOfItems_fullBatchesThenRestOnComplete() throws InterruptedException {
+        BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+        CountDownLatch isComplete = new CountDownLatch(1);
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+        publisher.subscribe(new BatchingSubscriber<>(4, 60_000, batches::add, isComplete::countDown));
+        for (int i = 0; i < 10; i++) {
+            publisher.submit(i);
+        }
+        publisher.close();
+
+        assertTrue(isComplete.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 1, 2, 3), batches.poll());
+        assertEquals(List.of(4, 5, 6, 7), batches.poll());
+        assertEquals(List.of(8, 9), batches.poll());
+        assertEquals(0, batches.size());
+    }
+
+    @Test
+    public void onNext_fewItems_handedOverAfterLinger() throws InterruptedException {
+        BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+        SubmissionPublisher<String> publisher = new SubmissionPublisher<>();
+        BatchingSubscriber<String> subscriber = new BatchingSubscriber<>(100, 20, batches::add);
+        publisher.subscribe(subscriber);
+        publisher.submit("a");
+        publisher.submit("b");
+
+        assertEquals(List.of("a", "b"), batches.poll(5, TimeUnit.SECONDS));
+        publisher.submit("c");
+        assertEquals(List.of("c"), batches.poll(5, TimeUnit.SECONDS));
+        subscriber.cancel();
+        publisher.close();
+    }
+
+    @Test
+    public void onNext_slowConsumer_publisherHeldBack() throws InterruptedException {
+        CountDownLatch isReleased = new CountDownLatch(1);
+        ExecutorService consumerThread = Executors.newSingleThreadExecutor();
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(consumerThread, 2);
+        publisher.subscribe(new BatchingSubscriber<>(1, 60_000, batch -> {
+            try {
+                isReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                publisher.submit(i);
+            }
+        });
+        producer.start();
+        producer.join(200);
+        // The consumer is stuck on the first item and the buffer is full.
+        assertTrue(producer.isAlive());
+        isReleased.countDown();
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        publisher.close();
+        consumerThread.shutdown();
+    }
+}
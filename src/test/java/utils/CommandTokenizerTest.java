@@ -0,0 +1,50 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandTokenizerTest {
+
+    @Test
+    public void tokenize_surroundingWhitespace_actionAndTrimmedArguments() {
+        ParsedCommand command = new ParsedCommand();
+        CommandTokenizer.tokenize("  find \t old  books \n", command);
+        assertEquals("find", command.getAction());
+        assertEquals("old  books", command.getArguments());
+    }
+
+    @Test
+    public void tokenize_reusedForShorterInput_previousInputForgotten() {
+        ParsedCommand command = new ParsedCommand();
+        CommandTokenizer.tokenize("deadline essay /by 01/01/2020 1200", command);
+        CommandTokenizer.splitDetail(command, "/by");
+        CommandTokenizer.tokenize("list", command);
+        assertEquals("list", command.getAction());
+        assertFalse(command.hasArguments());
+        assertFalse(command.hasDelimiter());
+    }
+
+    @Test
+    public void splitDetail_repeatedDelimiter_infoEndsAtNextDelimiter() {
+        ParsedCommand command = new ParsedCommand();
+        CommandTokenizer.tokenize("event party  /at 01/01/2020 1200 /at later", command);
+        CommandTokenizer.splitDetail(command, "/at");
+        assertTrue(command.hasDelimiter());
+        assertEquals("party", command.getName());
+        assertEquals("01/01/2020 1200", command.getInfo());
+    }
+
+    @Test
+    public void parseInt_validAndInvalidNumbers_numberOrNotANumber() {
+        assertEquals(42, CommandTokenizer.parseInt("x42", 1, 3));
+        assertEquals(-7, CommandTokenizer.parseInt("-7", 0, 2));
+        assertEquals(Integer.MAX_VALUE, CommandTokenizer.parseInt("2147483647", 0, 10));
+        assertEquals(CommandTokenizer.NOT_A_NUMBER, CommandTokenizer.parseInt("2147483648", 0, 10));
+        assertEquals(CommandTokenizer.NOT_A_NUMBER, CommandTokenizer.parseInt("1 2", 0, 3));
+        assertEquals(CommandTokenizer.NOT_A_NUMBER, CommandTokenizer.parseInt("+", 0, 1));
+        assertEquals(CommandTokenizer.NOT_A_NUMBER, CommandTokenizer.parseInt("", 0, 0));
+    }
+}
@@ -0,0 +1,38 @@
+package utils;
+
+import command.CommandResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class JsonTest {
+
+    @Test
+    public void parseObject_flatObject_membersAsStrings() {
+        Map<String, String> members = Json.parseObject(
+                " { \"name\" : \"a \\\"b\\\" \\u00e9\\n\", \"count\": 3, \"done\": false } ");
+        assertEquals("a \"b\" é\n", members.get("name"));
+        assertEquals("3", members.get("count"));
+        assertEquals("false", members.get("done"));
+    }
+
+    @Test
+    public void parseObject_invalidJson_null() {
+        assertNull(Json.parseObject("{\"name\": \"unterminated}"));
+        assertNull(Json.parseObject("{\"name\": [1, 2]}"));
+        assertNull(Json.parseObject("{\"name\": \"a\"} trailing"));
+        assertNull(Json.parseObject("name=a"));
+    }
+
+    @Test
+    public void render_messageAndError_escapedAndStripped() {
+        CommandResult result = new CommandResult();
+        result.addMessage("Tab\there\n");
+        result.addError("\"quoted\"\n");
+        assertEquals("{\"ok\":false,\"messages\":[\"Tab\\there\"],\"errors\":[\"\\\"quoted\\\"\"],\"tasks\":[]}",
+                Json.render(result));
+    }
+}
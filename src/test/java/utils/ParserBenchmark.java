@@ -0,0 +1,177 @@
+package utils;
+
+import command.CommandCentre;
+
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * Replays a trace of generated commands through the old regex based
+ * splitting and through CommandTokenizer, and reports the throughput of
+ * each in commands per second. It then replays the trace through the whole
+ * Parser, which also validates dates. Run the main method directly,
+ * optionally passing the number of commands in the trace; it is not part of
+ * the test suite.
+ */
+public class ParserBenchmark {
+    private static final int DEFAULT_COMMAND_COUNT = 200_000;
+    private static final int ROUNDS = 5;
+    private static final String[] NAMES = {"read book", "submit report", "team meeting", "buy groceries",
+        "plan trip", "call home"};
+
+    /**
+     * Keeps the results of each round alive so the work cannot be optimised away.
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        int commandCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COMMAND_COUNT;
+        String[] trace = generateTrace(commandCount);
+        System.out.printf("%d commands%n", commandCount);
+        System.out.printf("%-12s %14s%n", "tokenizer", "commands/s");
+        System.out.printf("%-12s %14.0f%n", "regex", measure(trace, ParserBenchmark::splitWithRegex));
+        ParsedCommand command = new ParsedCommand();
+        System.out.printf("%-12s %14.0f%n", "single-pass",
+                measure(trace, input -> splitWithTokenizer(input, command)));
+
+        Parser parser = new Parser();
+        CommandCentre commandCentre = new CommandCentre();
+        commandCentre.initializeDummyCommands();
+        commandCentre.register("sort", () -> {
+        });
+        parser.setCommandCentre(commandCentre);
+        System.out.printf("%-12s %14.0f%n", "Parser", measure(trace, input -> parseWithParser(input, parser)));
+        System.out.printf("(checksum %d)%n", sink);
+    }
+
+    /**
+     * Returns the best throughput in commands per second over the rounds,
+     * after a warm-up round.
+     */
+    private static double measure(String[] trace, ToIntFunction<String> splitter) {
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            long total = 0;
+            for (String input : trace) {
+                total += splitter.applyAsInt(input);
+            }
+            long elapsed = System.nanoTime() - start;
+            sink += total;
+            if (round > 0) {
+                bestNanos = Math.min(bestNanos, elapsed);
+            }
+        }
+        return trace.length / (bestNanos / 1e9);
+    }
+
+    /**
+     * Splits a command the way Parser did before CommandTokenizer.
+     */
+    private static int splitWithRegex(String input) {
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        for (int i = 0; i < input.length(); i++) {
+            Character c = input.charAt(i);
+            if (c != ' ') {
+                first.append(c);
+            } else {
+                second.append(input.substring(i));
+                break;
+            }
+        }
+        String action = first.toString().trim();
+        String arguments = second.toString().trim();
+        switch (action) {
+        case "deadline":
+            return arguments.split("\\s*" + "/by" + "\\s*").length;
+        case "event":
+            return arguments.split("\\s*" + "/at" + "\\s*").length;
+        case "done":
+        case "delete":
+            return Integer.parseInt(arguments);
+        case "sort":
+            return arguments.trim().split("\\s+").length;
+        default:
+            return arguments.length();
+        }
+    }
+
+    private static int splitWithTokenizer(String input, ParsedCommand command) {
+        CommandTokenizer.tokenize(input, command);
+        String action = command.getAction();
+        switch (action) {
+        case "deadline":
+            CommandTokenizer.splitDetail(command, "/by");
+            return command.hasDelimiter() ? 2 : 1;
+        case "event":
+            CommandTokenizer.splitDetail(command, "/at");
+            return command.hasDelimiter() ? 2 : 1;
+        case "done":
+        case "delete":
+            return CommandTokenizer.parseInt(input, command.getArgumentsStart(), command.getArgumentsEnd());
+        case "sort":
+            int count = 0;
+            int end = command.getArgumentsEnd();
+            int wordStart = command.getArgumentsStart();
+            while (wordStart < end) {
+                count++;
+                wordStart = CommandTokenizer.skipWhitespace(input,
+                        CommandTokenizer.skipToken(input, wordStart, end), end);
+            }
+            return count;
+        default:
+            return command.getArgumentsEnd() - command.getArgumentsStart();
+        }
+    }
+
+    private static int parseWithParser(String input, Parser parser) {
+        String action = parser.getNextAction(input);
+        switch (action) {
+        case "deadline":
+            return parser.parseDeadlineDetail().length;
+        case "event":
+            return parser.parseEventDetail().length;
+        case "sort":
+            return parser.parseSortOrder().size();
+        case "find":
+            return parser.parsePageOptions()[1] + parser.parseKeyword().length();
+        default:
+            return parser.parseTodoDetail().length();
+        }
+    }
+
+    private static String[] generateTrace(int commandCount) {
+        Random random = new Random(35);
+        String[] trace = new String[commandCount];
+        for (int i = 0; i < commandCount; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " " + random.nextInt(1000);
+            String date = String.format("%02d/%02d/2019 %02d%02d", random.nextInt(28) + 1,
+                    random.nextInt(12) + 1, random.nextInt(24), random.nextInt(60));
+            switch (random.nextInt(7)) {
+            case 0:
+                trace[i] = "todo " + name;
+                break;
+            case 1:
+                trace[i] = "deadline " + name + " /by " + date;
+                break;
+            case 2:
+                trace[i] = "event " + name + " /at " + date;
+                break;
+            case 3:
+                trace[i] = "find " + NAMES[random.nextInt(NAMES.length)] + " --page 2 --size 20";
+                break;
+            case 4:
+                trace[i] = "sort status deadline name:r";
+                break;
+            case 5:
+                trace[i] = "done " + (random.nextInt(100) + 1);
+                break;
+            default:
+                trace[i] = "todo   " + name + "  ";
+                break;
+            }
+        }
+        return trace;
+    }
+}
@@ -117,4 +117,54 @@ public class ParserTest {
             assertEquals(expectedTaskInfo[i], taskInfo[i]);
         }
     }
+
+    @Test
+    public void parsePageOptions_withPageAndSize_optionsRemovedFromKeyword() {
+        parser.getNextAction("find karate --page 3 --size 20");
+        int[] pageOptions = parser.parsePageOptions();
+        assertEquals(3, pageOptions[0]);
+        assertEquals(20, pageOptions[1]);
+        assertEquals("karate", parser.parseKeyword());
+    }
+
+    @Test
+    public void parsePageOptions_optionBetweenKeywords_optionRemoved() {
+        parser.getNextAction("find old --size 5 books");
+        int[] pageOptions = parser.parsePageOptions();
+        assertEquals(1, pageOptions[0]);
+        assertEquals(5, pageOptions[1]);
+        assertEquals("old books", parser.parseKeyword());
+    }
+
+    @Test
+    public void parsePageOptions_withoutOptions_unpaged() {
+        parser.getNextAction("list");
+        int[] pageOptions = parser.parsePageOptions();
+        assertEquals(Parser.UNPAGED, pageOptions[0]);
+        assertEquals(Parser.DEFAULT_PAGE_SIZE, pageOptions[1]);
+    }
+
+    @Test
+    public void parsePageOptions_withNonPositivePage_null() {
+        parser.getNextAction("list --page 0");
+        assertEquals(null, parser.parsePageOptions());
+    }
+
+    @Test
+    public void parseSortOrder_multipleCategories_perCategoryDirection() {
+        parser.getNextAction("sort status deadline name:r");
+        assertEquals("status deadline name:r", parser.parseSortOrder().toString());
+    }
+
+    @Test
+    public void parseSortOrder_separateReverseArgument_lastCategoryReversed() {
+        parser.getNextAction("sort name r");
+        assertEquals("name:r", parser.parseSortOrder().toString());
+    }
+
+    @Test
+    public void parseSortOrder_unknownCategory_null() {
+        parser.getNextAction("sort status colour");
+        assertEquals(null, parser.parseSortOrder());
+    }
 }
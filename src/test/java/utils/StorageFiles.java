@@ -0,0 +1,44 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Temporary storage files for tests, together with the history and lock
+ * files that Storage keeps beside them.
+ */
+public class StorageFiles {
+
+    /**
+     * Returns the path of a new temporary storage file, which does not exist
+     * yet, so that Duke starts with an empty list.
+     *
+     * @param prefix The start of the file name.
+     * @return The storage file.
+     * @throws IOException If the temporary file cannot be created.
+     */
+    public static File createStorageFile(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, ".txt");
+        file.delete();
+        return file;
+    }
+
+    public static File createStorageFile() throws IOException {
+        return createStorageFile("duke");
+    }
+
+    public static File getLockFile(File file) {
+        return new File(file.getPath() + Storage.LOCK_SUFFIX);
+    }
+
+    /**
+     * Deletes the storage file and the files kept beside it.
+     *
+     * @param file The storage file.
+     */
+    public static void deleteStorageFile(File file) {
+        file.delete();
+        new File(file.getPath() + Storage.HISTORY_SUFFIX).delete();
+        getLockFile(file).delete();
+    }
+}
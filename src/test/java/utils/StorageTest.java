@@ -0,0 +1,127 @@
+package utils;
+
+import main.Duke;
+import org.junit.jupiter.api.Test;
+import task.Task;
+import task.TaskList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StorageTest {
+
+    /**
+     * Replaces the storage file the way another process would, with the
+     * given header and tasks.
+     */
+    private static void writeAsOtherProcess(File file, String header, List<String> taskLines) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(header);
+        lines.addAll(taskLines);
+        File temp = new File(file.getPath() + ".other");
+        Files.write(temp.toPath(), lines, Charset.defaultCharset());
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Test
+    public void acquire_otherProcessAppended_onlyNewTaskRead() throws IOException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        File file = StorageFiles.createStorageFile();
+        Duke duke = new Duke(file.getAbsolutePath());
+        duke.execute("todo read book");
+        duke.execute("todo write essay");
+        List<String> lines = Files.readAllLines(file.toPath(), Charset.defaultCharset());
+        assertEquals("G | 2 | 1 | 1 | 18", lines.get(0));
+        Task firstTask = taskList.get(0);
+
+        // The other process left both tasks unchanged, 38 bytes after the header.
+        writeAsOtherProcess(file, "G | 3 | 2 | 2 | 38",
+                List.of("T | 0 | read book", "T | 0 | write essay", "T | 0 | from elsewhere"));
+        duke.execute("done 3");
+
+        assertEquals(3, taskList.size());
+        assertTrue(firstTask == taskList.get(0));
+        assertEquals("from elsewhere", taskList.get(2).getName());
+        assertEquals(Task.DONE, taskList.get(2).getStatus());
+        assertEquals("G | 4 | 3 | 2 | 38", Files.readAllLines(file.toPath(), Charset.defaultCharset()).get(0));
+        taskList.clear();
+        StorageFiles.deleteStorageFile(file);
+    }
+
+    @Test
+    public void acquire_otherProcessSeveralWritesAhead_differingTasksReplaced() throws IOException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        File file = StorageFiles.createStorageFile();
+        Duke duke = new Duke(file.getAbsolutePath());
+        duke.execute("todo a");
+        duke.execute("todo b");
+        duke.execute("todo c");
+        Task lastTask = taskList.get(2);
+
+        writeAsOtherProcess(file, "G | 9 | 8 | 0 | 0", List.of("T | 0 | a", "T | 1 | b2", "T | 0 | c"));
+        duke.execute("list");
+
+        assertEquals(3, taskList.size());
+        assertEquals("b2", taskList.get(1).getName());
+        assertTrue(lastTask == taskList.get(2));
+        duke.execute("todo d");
+        assertEquals("G | 10 | 9 | 3 | 31", Files.readAllLines(file.toPath(), Charset.defaultCharset()).get(0));
+        taskList.clear();
+        StorageFiles.deleteStorageFile(file);
+    }
+
+    @Test
+    public void execute_transactionOpen_lockHeldUntilCommit() throws IOException {
+        TaskList.newInstance().clear();
+        File file = StorageFiles.createStorageFile();
+        Duke duke = new Duke(file.getAbsolutePath());
+        try (FileChannel channel = FileChannel.open(StorageFiles.getLockFile(file).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            duke.execute("begin");
+            duke.execute("todo read book");
+            // Within one JVM, a lock held through another channel shows up as an overlap.
+            assertThrows(OverlappingFileLockException.class, channel::tryLock);
+
+            duke.execute("commit");
+            FileLock lock = channel.tryLock();
+            assertTrue(lock != null);
+            lock.release();
+        }
+        TaskList.newInstance().clear();
+        StorageFiles.deleteStorageFile(file);
+    }
+
+    @Test
+    public void execute_otherStorageInJvmHoldsLock_runsUnlocked() throws IOException {
+        TaskList taskList = TaskList.newInstance();
+        taskList.clear();
+        File file = StorageFiles.createStorageFile();
+        Duke first = new Duke(file.getAbsolutePath());
+        Duke second = new Duke(file.getAbsolutePath());
+        first.execute("begin");
+        first.execute("todo read book");
+
+        second.execute("todo write essay");
+        first.execute("commit");
+
+        assertEquals(2, taskList.size());
+        assertEquals("write essay", taskList.get(1).getName());
+        taskList.clear();
+        StorageFiles.deleteStorageFile(file);
+    }
+}